@@ -0,0 +1,191 @@
+package com.google.ads.mediation.adcolony;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.adcolony.sdk.AdColony;
+import com.adcolony.sdk.AdColonyCustomMessage;
+import com.adcolony.sdk.AdColonyCustomMessageListener;
+import com.google.android.gms.ads.mediation.rtb.SignalCallbacks;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link AdColonyBidSignalService} class listens to the "bid" custom messages sent by the
+ * AdColony SDK and keeps the latest message of each zone for {@link #BID_TTL_MILLIS}. Signal
+ * requests for a zone without a fresh message wait for one until their deadline, and are answered
+ * with an empty signal if none arrives.
+ */
+final class AdColonyBidSignalService {
+
+    private static final String BID_MESSAGE_TYPE = "bid";
+
+    /**
+     * Time a bid message is used for signals after it was received, in milliseconds.
+     */
+    static final long BID_TTL_MILLIS = 60000;
+
+    /**
+     * Time a signal request waits for a bid message, in milliseconds.
+     */
+    static final long SIGNAL_DEADLINE_MILLIS = 500;
+
+    private static final AdColonyBidSignalService instance = new AdColonyBidSignalService();
+
+    private final ConcurrentHashMap<String, BidMessage> bidMessages = new ConcurrentHashMap<>();
+
+    /**
+     * Signal requests waiting for a bid message, keyed by zone. Guarded by this service's lock.
+     */
+    private final Map<String, List<PendingSignalRequest>> pendingRequests = new HashMap<>();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private boolean isListenerRegistered = false;
+
+    static AdColonyBidSignalService getInstance() {
+        return instance;
+    }
+
+    private AdColonyBidSignalService() {
+    }
+
+    /**
+     * Sends the bid message of the zone to the callbacks, waiting for a fresh one until the
+     * deadline if needed.
+     *
+     * @param zone      the AdColony zone ID.
+     * @param callbacks the callbacks receiving the signals.
+     */
+    void collectSignals(String zone, SignalCallbacks callbacks) {
+        registerListener();
+
+        String message = getFreshMessage(zone);
+        if (message != null || TextUtils.isEmpty(zone)) {
+            callbacks.onSuccess(message != null ? message : "");
+            return;
+        }
+
+        final PendingSignalRequest request = new PendingSignalRequest(zone, callbacks);
+        synchronized (this) {
+            // A message may have arrived since the cache was checked.
+            message = getFreshMessage(zone);
+            if (message == null) {
+                List<PendingSignalRequest> requests = pendingRequests.get(zone);
+                if (requests == null) {
+                    requests = new ArrayList<>();
+                    pendingRequests.put(zone, requests);
+                }
+                requests.add(request);
+                handler.postDelayed(request, SIGNAL_DEADLINE_MILLIS);
+                return;
+            }
+        }
+        callbacks.onSuccess(message);
+    }
+
+    private synchronized void registerListener() {
+        if (isListenerRegistered) {
+            return;
+        }
+        isListenerRegistered = true;
+        AdColony.addCustomMessageListener(new AdColonyCustomMessageListener() {
+            @Override
+            public void onAdColonyCustomMessage(AdColonyCustomMessage adColonyCustomMessage) {
+                onBidMessage(adColonyCustomMessage.getMessage());
+            }
+        }, BID_MESSAGE_TYPE);
+    }
+
+    private void onBidMessage(String message) {
+        String zone;
+        try {
+            JSONObject jsonObject = new JSONObject(message);
+            zone = jsonObject.getString("zone");
+        } catch (JSONException e) {
+            Log.w(AdColonyMediationAdapter.TAG, "Unable to parse AdColony bid message.", e);
+            return;
+        }
+
+        List<PendingSignalRequest> requests;
+        synchronized (this) {
+            bidMessages.put(zone, new BidMessage(message));
+            requests = pendingRequests.remove(zone);
+        }
+        if (requests == null) {
+            return;
+        }
+        for (PendingSignalRequest request : requests) {
+            handler.removeCallbacks(request);
+            request.callbacks.onSuccess(message);
+        }
+    }
+
+    private void onDeadline(PendingSignalRequest request) {
+        synchronized (this) {
+            List<PendingSignalRequest> requests = pendingRequests.get(request.zone);
+            if (requests == null || !requests.remove(request)) {
+                // Already answered with a bid message.
+                return;
+            }
+            if (requests.isEmpty()) {
+                pendingRequests.remove(request.zone);
+            }
+        }
+        request.callbacks.onSuccess("");
+    }
+
+    private String getFreshMessage(String zone) {
+        if (zone == null) {
+            return null;
+        }
+        BidMessage bidMessage = bidMessages.get(zone);
+        if (bidMessage == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - bidMessage.receivedTimeMillis > BID_TTL_MILLIS) {
+            bidMessages.remove(zone, bidMessage);
+            return null;
+        }
+        return bidMessage.message;
+    }
+
+    private static final class BidMessage {
+
+        private final String message;
+        private final long receivedTimeMillis;
+
+        BidMessage(String message) {
+            this.message = message;
+            this.receivedTimeMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * A signal request waiting for a bid message. Runs when its deadline is reached.
+     */
+    private final class PendingSignalRequest implements Runnable {
+
+        private final String zone;
+        private final SignalCallbacks callbacks;
+
+        PendingSignalRequest(String zone, SignalCallbacks callbacks) {
+            this.zone = zone;
+            this.callbacks = callbacks;
+        }
+
+        @Override
+        public void run() {
+            onDeadline(this);
+        }
+    }
+}
@@ -8,8 +8,6 @@ import android.util.Log;
 
 import com.adcolony.sdk.AdColony;
 import com.adcolony.sdk.AdColonyAppOptions;
-import com.adcolony.sdk.AdColonyCustomMessage;
-import com.adcolony.sdk.AdColonyCustomMessageListener;
 import com.google.android.gms.ads.mediation.Adapter;
 import com.google.android.gms.ads.mediation.InitializationCompleteCallback;
 import com.google.android.gms.ads.mediation.MediationAdLoadCallback;
@@ -27,18 +25,13 @@ import com.google.android.gms.ads.mediation.rtb.SignalCallbacks;
 import com.jirbo.adcolony.AdColonyManager;
 import com.jirbo.adcolony.BuildConfig;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
 public class AdColonyMediationAdapter extends RtbAdapter {
     public static final String TAG = AdColonyMediationAdapter.class.getSimpleName();
     private static AdColonyAppOptions appOptions = new AdColonyAppOptions();
-    private static HashMap<String, String> bidResponseDetailsHashMap = new HashMap<>();
 
     /**
      * {@link Adapter} implementation
@@ -163,26 +156,9 @@ public class AdColonyMediationAdapter extends RtbAdapter {
 
     @Override
     public void collectSignals(RtbSignalData rtbSignalData, SignalCallbacks signalCallbacks) {
-        String zone, signals = "";
-        AdColony.addCustomMessageListener(new AdColonyCustomMessageListener() {
-            @Override
-            public void onAdColonyCustomMessage(AdColonyCustomMessage adColonyCustomMessage) {
-
-                try {
-                    JSONObject jsonObject = new JSONObject(adColonyCustomMessage.getMessage());
-                    String zoneID = jsonObject.getString("zone");
-                    bidResponseDetailsHashMap.put(zoneID, adColonyCustomMessage.getMessage());
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                }
-            }
-        }, "bid");
-        if (bidResponseDetailsHashMap != null && bidResponseDetailsHashMap.size() > 0) {
-            Bundle serverParameters = rtbSignalData.getConfiguration().getServerParameters();
-            zone = serverParameters.getString(AdColonyAdapterUtils.KEY_ZONE_ID);
-            signals = bidResponseDetailsHashMap.get(zone);
-        }
-        signalCallbacks.onSuccess(signals);
+        Bundle serverParameters = rtbSignalData.getConfiguration().getServerParameters();
+        String zone = serverParameters.getString(AdColonyAdapterUtils.KEY_ZONE_ID);
+        AdColonyBidSignalService.getInstance().collectSignals(zone, signalCallbacks);
     }
     //endregion
 }
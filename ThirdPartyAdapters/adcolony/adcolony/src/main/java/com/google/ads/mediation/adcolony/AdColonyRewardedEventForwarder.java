@@ -1,6 +1,7 @@
 package com.google.ads.mediation.adcolony;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.adcolony.sdk.AdColony;
 import com.adcolony.sdk.AdColonyInterstitial;
@@ -11,13 +12,37 @@ import com.adcolony.sdk.AdColonyZone;
 
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
-
+import java.util.LinkedList;
+import java.util.WeakHashMap;
+
+/**
+ * Forwards the AdColony rewarded events to the {@link AdColonyRewardedRenderer}s. Several
+ * renderers can load ads for the same zone: each fill or no-fill goes to the renderer of that
+ * zone that has been waiting the longest, and the events of a filled ad go to the renderer that
+ * received it.
+ */
 class AdColonyRewardedEventForwarder extends AdColonyInterstitialListener
         implements AdColonyRewardListener {
 
     private static AdColonyRewardedEventForwarder instance = null;
 
-    private static HashMap<String, WeakReference<AdColonyRewardedRenderer>> mListeners;
+    /**
+     * Renderers waiting for an ad, in the order they requested it, keyed by zone ID.
+     */
+    private final HashMap<String, LinkedList<WeakReference<AdColonyRewardedRenderer>>>
+            mWaitingRenderers;
+
+    /**
+     * Renderers of the filled ads, keyed by the ad itself.
+     */
+    private final WeakHashMap<AdColonyInterstitial, WeakReference<AdColonyRewardedRenderer>>
+            mRenderers;
+
+    /**
+     * Renderers of the last ad opened for each zone. Rewards only carry the zone ID, and only one
+     * ad is shown at a time.
+     */
+    private final HashMap<String, WeakReference<AdColonyRewardedRenderer>> mShowingRenderers;
 
     static AdColonyRewardedEventForwarder getInstance() {
         if (instance == null) {
@@ -27,83 +52,128 @@ class AdColonyRewardedEventForwarder extends AdColonyInterstitialListener
     }
 
     private AdColonyRewardedEventForwarder() {
-        mListeners = new HashMap<>();
+        mWaitingRenderers = new HashMap<>();
+        mRenderers = new WeakHashMap<>();
+        mShowingRenderers = new HashMap<>();
         AdColony.setRewardListener(AdColonyRewardedEventForwarder.this);
     }
 
-    void addListener(@NonNull String zoneID, @NonNull AdColonyRewardedRenderer listener) {
-        WeakReference<AdColonyRewardedRenderer> weakListener = new WeakReference<>(listener);
-        mListeners.put(zoneID, weakListener);
+    /**
+     * Adds the renderer to the end of the renderers waiting for an ad from the zone.
+     */
+    synchronized void addListener(@NonNull String zoneID,
+                                  @NonNull AdColonyRewardedRenderer listener) {
+        LinkedList<WeakReference<AdColonyRewardedRenderer>> renderers =
+                mWaitingRenderers.get(zoneID);
+        if (renderers == null) {
+            renderers = new LinkedList<>();
+            mWaitingRenderers.put(zoneID, renderers);
+        }
+        renderers.add(new WeakReference<>(listener));
     }
 
-    boolean isListenerAvailable(@NonNull String zoneID) {
-        return (mListeners.containsKey(zoneID) && mListeners.get(zoneID).get() != null);
+    /**
+     * Removes and returns the live renderer that has been waiting the longest for the zone.
+     */
+    @Nullable
+    private synchronized AdColonyRewardedRenderer pollWaitingRenderer(String zoneID) {
+        LinkedList<WeakReference<AdColonyRewardedRenderer>> renderers =
+                mWaitingRenderers.get(zoneID);
+        if (renderers == null) {
+            return null;
+        }
+
+        AdColonyRewardedRenderer renderer = null;
+        while (renderer == null && !renderers.isEmpty()) {
+            renderer = renderers.poll().get();
+        }
+        if (renderers.isEmpty()) {
+            mWaitingRenderers.remove(zoneID);
+        }
+        return renderer;
+    }
+
+    @Nullable
+    private synchronized AdColonyRewardedRenderer getRenderer(AdColonyInterstitial ad) {
+        WeakReference<AdColonyRewardedRenderer> reference = mRenderers.get(ad);
+        return reference != null ? reference.get() : null;
+    }
+
+    @Nullable
+    private synchronized AdColonyRewardedRenderer removeRenderer(AdColonyInterstitial ad) {
+        WeakReference<AdColonyRewardedRenderer> reference = mRenderers.remove(ad);
+        return reference != null ? reference.get() : null;
     }
 
     //region AdColonyInterstitialListener implementation
     @Override
     public void onRequestFilled(AdColonyInterstitial adColonyInterstitial) {
-        String zoneID = adColonyInterstitial.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onRequestFilled(adColonyInterstitial);
+        AdColonyRewardedRenderer renderer =
+                pollWaitingRenderer(adColonyInterstitial.getZoneID());
+        if (renderer != null) {
+            synchronized (this) {
+                mRenderers.put(adColonyInterstitial, new WeakReference<>(renderer));
+            }
+            renderer.onRequestFilled(adColonyInterstitial);
         }
     }
 
     @Override
     public void onRequestNotFilled(AdColonyZone zone) {
-        String zoneID = zone.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onRequestNotFilled(zone);
-            mListeners.remove(zoneID);
+        AdColonyRewardedRenderer renderer = pollWaitingRenderer(zone.getZoneID());
+        if (renderer != null) {
+            renderer.onRequestNotFilled(zone);
         }
     }
 
     @Override
     public void onExpiring(AdColonyInterstitial ad) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onExpiring(ad);
+        AdColonyRewardedRenderer renderer = removeRenderer(ad);
+        if (renderer != null) {
+            renderer.onExpiring(ad);
         }
     }
 
     @Override
     public void onClicked(AdColonyInterstitial ad) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onClicked(ad);
+        AdColonyRewardedRenderer renderer = getRenderer(ad);
+        if (renderer != null) {
+            renderer.onClicked(ad);
         }
     }
 
     @Override
     public void onOpened(AdColonyInterstitial ad) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onOpened(ad);
+        AdColonyRewardedRenderer renderer = getRenderer(ad);
+        if (renderer != null) {
+            synchronized (this) {
+                mShowingRenderers.put(ad.getZoneID(), new WeakReference<>(renderer));
+            }
+            renderer.onOpened(ad);
         }
     }
 
     @Override
     public void onLeftApplication(AdColonyInterstitial ad) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onLeftApplication(ad);
+        AdColonyRewardedRenderer renderer = getRenderer(ad);
+        if (renderer != null) {
+            renderer.onLeftApplication(ad);
         }
     }
 
     @Override
     public void onClosed(AdColonyInterstitial ad) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onClosed(ad);
-            mListeners.remove(zoneID);
+        AdColonyRewardedRenderer renderer = removeRenderer(ad);
+        if (renderer != null) {
+            renderer.onClosed(ad);
         }
     }
 
     @Override
     public void onIAPEvent(AdColonyInterstitial ad, String product_id, int engagement_type) {
-        String zoneID = ad.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onIAPEvent(ad, product_id, engagement_type);
+        AdColonyRewardedRenderer renderer = getRenderer(ad);
+        if (renderer != null) {
+            renderer.onIAPEvent(ad, product_id, engagement_type);
         }
     }
     //endregion
@@ -111,9 +181,16 @@ class AdColonyRewardedEventForwarder extends AdColonyInterstitialListener
     //region AdColonyRewardListener implementation
     @Override
     public void onReward(AdColonyReward adColonyReward) {
-        String zoneID = adColonyReward.getZoneID();
-        if (isListenerAvailable(zoneID)) {
-            mListeners.get(zoneID).get().onReward(adColonyReward);
+        AdColonyRewardedRenderer renderer = null;
+        synchronized (this) {
+            WeakReference<AdColonyRewardedRenderer> reference =
+                    mShowingRenderers.get(adColonyReward.getZoneID());
+            if (reference != null) {
+                renderer = reference.get();
+            }
+        }
+        if (renderer != null) {
+            renderer.onReward(adColonyReward);
         }
     }
     //endregion
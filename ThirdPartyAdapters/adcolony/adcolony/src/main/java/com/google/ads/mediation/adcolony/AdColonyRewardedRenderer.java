@@ -50,12 +50,12 @@ public class AdColonyRewardedRenderer implements MediationRewardedAd {
             showPostPopup = networkExtras.getBoolean("show_post_popup", false);
         }
 
-        AdColonyAdOptions adOptions = new AdColonyAdOptions()
+        final AdColonyAdOptions adOptions = new AdColonyAdOptions()
                 .enableConfirmationDialog(showPrePopup)
                 .enableResultsDialog(showPostPopup);
         ArrayList<String> listFromServerParams =
                 AdColonyManager.getInstance().parseZoneList(serverParameters);
-        String requestedZone = AdColonyManager
+        final String requestedZone = AdColonyManager
                 .getInstance().getZoneFromRequest(listFromServerParams, networkExtras);
 
         if (isRtb) {
@@ -64,35 +64,35 @@ public class AdColonyRewardedRenderer implements MediationRewardedAd {
             AdColony.requestInterstitial(requestedZone, AdColonyRewardedEventForwarder.getInstance()
                     , adOptions);
         } else {
-            if (AdColonyRewardedEventForwarder.getInstance().isListenerAvailable(requestedZone)) {
-                String logMessage = "Failed to load ad from AdColony: " +
-                        "Only a maximum of one ad can be loaded per Zone ID.";
-                Log.e(TAG, logMessage);
-                mAdLoadCallback.onFailure(logMessage);
-                return;
-            }
-
             // Configures the AdColony SDK, which also initializes the SDK if it has not been yet.
-            boolean adColonyConfigured =
-                    AdColonyManager.getInstance().configureAdColony(adConfiguration);
+            AdColonyManager.getInstance().configureAdColony(adConfiguration,
+                    new AdColonyManager.ConfigurationListener() {
+                        @Override
+                        public void onConfigurationComplete(boolean success) {
+                            requestAd(success, requestedZone, adOptions);
+                        }
+                    });
+        }
+    }
 
-            // Check if we have a valid zone and request the ad.
-            if (adColonyConfigured && !TextUtils.isEmpty(requestedZone)) {
+    private void requestAd(boolean adColonyConfigured, String requestedZone,
+                           AdColonyAdOptions adOptions) {
+        // Check if we have a valid zone and request the ad.
+        if (adColonyConfigured && !TextUtils.isEmpty(requestedZone)) {
 
-                AdColonyRewardedEventForwarder.getInstance().addListener(requestedZone,
-                        AdColonyRewardedRenderer.this);
+            AdColonyRewardedEventForwarder.getInstance().addListener(requestedZone,
+                    AdColonyRewardedRenderer.this);
 
-                AdColony.requestInterstitial(requestedZone,
-                        AdColonyRewardedEventForwarder.getInstance(), adOptions);
-            } else {
-                // Cannot request an ad without a valid zone.
-                adColonyConfigured = false;
-            }
-            if (!adColonyConfigured) {
-                String logMessage = "Failed to request ad from AdColony: Internal Error";
-                Log.w(TAG, logMessage);
-                mAdLoadCallback.onFailure(logMessage);
-            }
+            AdColony.requestInterstitial(requestedZone,
+                    AdColonyRewardedEventForwarder.getInstance(), adOptions);
+        } else {
+            // Cannot request an ad without a valid zone.
+            adColonyConfigured = false;
+        }
+        if (!adColonyConfigured) {
+            String logMessage = "Failed to request ad from AdColony: Internal Error";
+            Log.w(TAG, logMessage);
+            mAdLoadCallback.onFailure(logMessage);
         }
     }
 
@@ -114,6 +114,8 @@ public class AdColonyRewardedRenderer implements MediationRewardedAd {
     void onExpiring(AdColonyInterstitial ad) {
         // No relevant ad event can be forwarded to the Google Mobile Ads SDK.
         mAdColonyInterstitial = null;
+        AdColonyRewardedEventForwarder.getInstance().addListener(ad.getZoneID(),
+                AdColonyRewardedRenderer.this);
         AdColony.requestInterstitial(ad.getZoneID(), AdColonyRewardedEventForwarder.getInstance());
     }
 
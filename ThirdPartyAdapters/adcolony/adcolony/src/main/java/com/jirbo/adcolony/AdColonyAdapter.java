@@ -53,15 +53,26 @@ public class AdColonyAdapter extends AdColonyMediationAdapter
     @Override
     public void requestInterstitialAd(Context context,
                                       MediationInterstitialListener mediationInterstitialListener,
-                                      Bundle serverParams,
+                                      final Bundle serverParams,
                                       MediationAdRequest mediationAdRequest,
-                                      Bundle mediationExtras) {
+                                      final Bundle mediationExtras) {
         _adColonyInterstitialListener =
                 new AdColonyAdListener(this, mediationInterstitialListener);
+        final MediationInterstitialListener listener = mediationInterstitialListener;
         // Initialize AdColony.
-        boolean success = AdColonyManager.getInstance()
-                .configureAdColony(context, serverParams, mediationAdRequest, mediationExtras);
+        AdColonyManager.getInstance().configureAdColony(context, serverParams, mediationAdRequest,
+                mediationExtras, new AdColonyManager.ConfigurationListener() {
+                    @Override
+                    public void onConfigurationComplete(boolean success) {
+                        requestInterstitial(success, listener, serverParams, mediationExtras);
+                    }
+                });
+    }
 
+    private void requestInterstitial(boolean success,
+                                     MediationInterstitialListener mediationInterstitialListener,
+                                     Bundle serverParams,
+                                     Bundle mediationExtras) {
         // If we were unable to configure, notify the listener.
         if (success) {
             // Configuration is successful; retrieve zones and request interstitial ad.
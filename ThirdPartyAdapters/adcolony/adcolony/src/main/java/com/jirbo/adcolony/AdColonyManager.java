@@ -5,6 +5,8 @@ import android.app.Application;
 import android.content.Context;
 import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -19,7 +21,11 @@ import com.google.android.gms.ads.mediation.MediationRewardedAdConfiguration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A helper class used by the {@link AdColonyAdapter}.
@@ -27,12 +33,63 @@ import java.util.Date;
 public class AdColonyManager {
     private static final String TAG = AdColonyAdapter.class.getSimpleName();
 
+    /**
+     * Time to wait for more unseen zones before configuring AdColony, in milliseconds.
+     */
+    private static final long CONFIGURATION_DEBOUNCE_MILLIS = 50;
+
     private static AdColonyManager _instance = null;
-    private ArrayList<String> configuredZones;
+    private final HashSet<String> configuredZones;
     private boolean isConfigured = false;
 
+    /**
+     * Zones seen since the last configuration, and the requests waiting for them to be
+     * configured. Guarded by this manager's lock.
+     */
+    private final HashSet<String> pendingZones;
+    private final ArrayList<ConfigurationListener> pendingListeners;
+    private Context pendingContext;
+    private String pendingAppID;
+    private AdColonyAppOptions pendingOptions;
+    private boolean isConfigurationScheduled = false;
+
+    /**
+     * Maximum number of user metadata objects kept in {@link #userMetadataCache}.
+     */
+    private static final int MAX_CACHED_USER_METADATA = 8;
+
+    /**
+     * User metadata built for the recent targeting fingerprints, least recently used first.
+     * Guarded by this manager's lock.
+     */
+    private final LinkedHashMap<String, AdColonyUserMetadata> userMetadataCache =
+            new LinkedHashMap<String, AdColonyUserMetadata>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, AdColonyUserMetadata> eldest) {
+                    return size() > MAX_CACHED_USER_METADATA;
+                }
+            };
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable configureRunnable = new Runnable() {
+        @Override
+        public void run() {
+            configurePendingZones();
+        }
+    };
+
+    /**
+     * Listener notified once the zones of a request have been configured with AdColony.
+     */
+    public interface ConfigurationListener {
+        void onConfigurationComplete(boolean success);
+    }
+
     private AdColonyManager() {
-        this.configuredZones = new ArrayList<>();
+        this.configuredZones = new HashSet<>();
+        this.pendingZones = new HashSet<>();
+        this.pendingListeners = new ArrayList<>();
     }
 
     public static AdColonyManager getInstance() {
@@ -42,66 +99,117 @@ public class AdColonyManager {
         return _instance;
     }
 
-    private boolean configureAdColony(Context context,
-                                      AdColonyAppOptions options,
-                                      String appID,
-                                      ArrayList<String> zones) {
+    /**
+     * Configures AdColony with the given zones. If every zone has already been configured, the
+     * listener is notified right away. Otherwise the unseen zones are collected for a short
+     * debounce window, AdColony is configured once with all of them, and every request waiting
+     * for that configuration is notified.
+     */
+    private void configureAdColony(Context context,
+                                   AdColonyAppOptions options,
+                                   String appID,
+                                   ArrayList<String> zones,
+                                   ConfigurationListener listener) {
 
         if (!(context instanceof Activity || context instanceof Application)) {
             Log.w(TAG, "Context must be of type Activity or Application.");
-            return false;
+            listener.onConfigurationComplete(false);
+            return;
         }
 
         if (TextUtils.isEmpty(appID)) {
             Log.w(TAG, "A valid appId wasn't provided.");
-            return false;
+            listener.onConfigurationComplete(false);
+            return;
         }
 
         if (zones == null || zones.isEmpty()) {
             Log.w(TAG, "No zones provided to request ad.");
-            return false;
+            listener.onConfigurationComplete(false);
+            return;
         }
 
-        // Check to see if the stored list of zones is missing any values.
-        for (String zone : zones) {
-            if (!configuredZones.contains(zone)) {
-                // Not contained in our list.
-                configuredZones.add(zone);
-                isConfigured = false;
+        synchronized (this) {
+            // Check to see if the stored set of zones is missing any values.
+            for (String zone : zones) {
+                if (!configuredZones.contains(zone)) {
+                    pendingZones.add(zone);
+                }
+            }
+
+            if (isConfigured && pendingZones.isEmpty()) {
+                // Send the options on every request, the publisher may have changed the consent
+                // settings of the shared AppOptions since the previous one.
+                AdColony.setAppOptions(options);
+            } else {
+                // We are requesting zones that we haven't configured with yet. Wait for the
+                // other new zones of this batch before configuring AdColony.
+                pendingListeners.add(listener);
+                pendingContext = context;
+                pendingAppID = appID;
+                pendingOptions = options;
+                if (!isConfigurationScheduled) {
+                    isConfigurationScheduled = true;
+                    handler.postDelayed(configureRunnable, CONFIGURATION_DEBOUNCE_MILLIS);
+                }
+                return;
             }
         }
-        if (isConfigured) {
-            AdColony.setAppOptions(options);
-        } else {
-            // We are requesting zones that we haven't configured with yet.
+        listener.onConfigurationComplete(true);
+    }
+
+    /**
+     * Configures AdColony with all the zones seen so far and notifies the waiting requests.
+     */
+    private void configurePendingZones() {
+        ArrayList<ConfigurationListener> listeners;
+        boolean success;
+        synchronized (this) {
+            isConfigurationScheduled = false;
+            configuredZones.addAll(pendingZones);
+            pendingZones.clear();
             String[] zoneArray = configuredZones.toArray(new String[0]);
 
             // Always set mediation network info.
-            options.setMediationNetwork(AdColonyAppOptions.ADMOB, BuildConfig.VERSION_NAME);
-            isConfigured = context instanceof Activity
-                    ? AdColony.configure((Activity) context, options, appID, zoneArray)
-                    : AdColony.configure((Application) context, options, appID, zoneArray);
+            pendingOptions.setMediationNetwork(AdColonyAppOptions.ADMOB, BuildConfig.VERSION_NAME);
+            isConfigured = pendingContext instanceof Activity
+                    ? AdColony.configure((Activity) pendingContext, pendingOptions, pendingAppID,
+                    zoneArray)
+                    : AdColony.configure((Application) pendingContext, pendingOptions,
+                    pendingAppID, zoneArray);
+            success = isConfigured;
+
+            listeners = new ArrayList<>(pendingListeners);
+            pendingListeners.clear();
+            pendingContext = null;
+            pendingAppID = null;
+            pendingOptions = null;
+        }
+
+        for (ConfigurationListener listener : listeners) {
+            listener.onConfigurationComplete(success);
         }
-        return isConfigured;
     }
 
-    boolean configureAdColony(Context context,
-                              Bundle serverParams,
-                              MediationAdRequest adRequest,
-                              Bundle networkExtras) {
+    void configureAdColony(Context context,
+                           Bundle serverParams,
+                           MediationAdRequest adRequest,
+                           Bundle networkExtras,
+                           ConfigurationListener listener) {
         String appId = serverParams.getString(AdColonyAdapterUtils.KEY_APP_ID);
         ArrayList<String> newZoneList = parseZoneList(serverParams);
         AdColonyAppOptions appOptions = buildAppOptions(adRequest);
-        return configureAdColony(context, appOptions, appId, newZoneList);
+        configureAdColony(context, appOptions, appId, newZoneList, listener);
     }
 
-    public boolean configureAdColony(MediationRewardedAdConfiguration adConfiguration) {
+    public void configureAdColony(MediationRewardedAdConfiguration adConfiguration,
+                                  ConfigurationListener listener) {
         Context context = adConfiguration.getContext();
         Bundle serverParams = adConfiguration.getServerParameters();
         String appId = serverParams.getString(AdColonyAdapterUtils.KEY_APP_ID);
         ArrayList<String> newZoneList = parseZoneList(serverParams);
         AdColonyAppOptions appOptions = buildAppOptions(adConfiguration);
-        return configureAdColony(context, appOptions, appId, newZoneList);
+        configureAdColony(context, appOptions, appId, newZoneList, listener);
     }
 
     /**
@@ -111,41 +219,67 @@ public class AdColonyManager {
      * @return a valid AppOptions object.
      */
     private AdColonyAppOptions buildAppOptions(MediationAdRequest adRequest) {
+        if (adRequest == null) {
+            return AdColonyMediationAdapter.getAppOptions();
+        }
+        return buildAppOptions(adRequest.isTesting(), adRequest.getGender(),
+                adRequest.getLocation(), adRequest.getBirthday());
+    }
+
+    /**
+     * Places user_id, age, location, and gender into AdColonyAppOptions.
+     *
+     * @param adConfiguration rewarded ad configuration received from AdMob.
+     * @return a valid AppOptions object.
+     */
+    private AdColonyAppOptions buildAppOptions(MediationRewardedAdConfiguration adConfiguration) {
+        return buildAppOptions(adConfiguration.isTestRequest(), AdRequest.GENDER_UNKNOWN,
+                adConfiguration.getLocation(), null);
+    }
+
+    /**
+     * Updates the shared AppOptions with the given targeting. User metadata is cached per
+     * targeting fingerprint, so it is only built when the targeting of a request has not been
+     * seen recently.
+     *
+     * @return the shared AppOptions object.
+     */
+    private AdColonyAppOptions buildAppOptions(boolean isTesting,
+                                               int gender,
+                                               Location location,
+                                               Date birthday) {
         AdColonyAppOptions options = AdColonyMediationAdapter.getAppOptions();
+        int age = getAge(birthday);
+        String fingerprint = getTargetingFingerprint(gender, location, age);
 
-        if (adRequest != null) {
-            // Enable test ads from AdColony when a Test Ad Request was sent.
-            if (adRequest.isTesting()) {
-                options.setTestModeEnabled(true);
-            }
+        synchronized (this) {
+            AdColonyUserMetadata userMetadata = userMetadataCache.get(fingerprint);
+            if (userMetadata == null) {
+                userMetadata = new AdColonyUserMetadata();
 
-            AdColonyUserMetadata userMetadata = new AdColonyUserMetadata();
+                // Try to update userMetaData with gender field.
+                if (gender == AdRequest.GENDER_FEMALE) {
+                    userMetadata.setUserGender(AdColonyUserMetadata.USER_FEMALE);
+                } else if (gender == AdRequest.GENDER_MALE) {
+                    userMetadata.setUserGender(AdColonyUserMetadata.USER_MALE);
+                }
 
-            // Try to update userMetaData with gender field.
-            int genderVal = adRequest.getGender();
-            if (genderVal == AdRequest.GENDER_FEMALE) {
-                userMetadata.setUserGender(AdColonyUserMetadata.USER_FEMALE);
-            } else if (genderVal == AdRequest.GENDER_MALE) {
-                userMetadata.setUserGender(AdColonyUserMetadata.USER_MALE);
-            }
+                // Try to update userMetaData with location (if provided).
+                if (location != null) {
+                    userMetadata.setUserLocation(location);
+                }
 
-            // Try to update userMetaData with location (if provided).
-            Location location = adRequest.getLocation();
-            if (location != null) {
-                userMetadata.setUserLocation(location);
+                // Try to update userMetaData with age if birth date is provided.
+                if (age >= 0) {
+                    userMetadata.setUserAge(age);
+                }
+                userMetadataCache.put(fingerprint, userMetadata);
             }
 
-            // Try to update userMetaData with age if birth date is provided.
-            Date birthday = adRequest.getBirthday();
-            if (birthday != null) {
-                long currentTime = System.currentTimeMillis();
-                long birthdayTime = birthday.getTime();
-                long diff = currentTime - birthdayTime;
-                if (diff > 0) {
-                    long day = (1000 * 60 * 60 * 24);
-                    long yearsPassed = diff / day / 365;
-                    userMetadata.setUserAge((int) yearsPassed);
-                }
+            // Enable test ads from AdColony when a Test Ad Request was sent. Test mode is never
+            // turned off here, the publisher may have enabled it on the shared options.
+            if (isTesting) {
+                options.setTestModeEnabled(true);
             }
             options.setUserMetadata(userMetadata);
         }
@@ -153,29 +287,41 @@ public class AdColonyManager {
     }
 
     /**
-     * Places user_id, age, location, and gender into AdColonyAppOptions.
-     *
-     * @param adConfiguration rewarded ad configuration received from AdMob.
-     * @return a valid AppOptions object.
+     * Builds a compact key from the targeting of a request. The location is rounded to about a
+     * kilometer so that small moves do not change the key.
      */
-    private AdColonyAppOptions buildAppOptions(MediationRewardedAdConfiguration adConfiguration) {
-        AdColonyAppOptions options = AdColonyMediationAdapter.getAppOptions();
-
-        // Enable test ads from AdColony when a Test Ad Request was sent.
-        if (adConfiguration.isTestRequest()) {
-            options.setTestModeEnabled(true);
+    private static String getTargetingFingerprint(int gender,
+                                                  Location location,
+                                                  int age) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(gender).append('|');
+        if (location != null) {
+            builder.append(Math.round(location.getLatitude() * 100)).append(',')
+                    .append(Math.round(location.getLongitude() * 100));
         }
+        builder.append('|').append(age);
+        return builder.toString();
+    }
 
-        AdColonyUserMetadata userMetadata = new AdColonyUserMetadata();
-
-        // Try to update userMetaData with location (if provided).
-        Location location = adConfiguration.getLocation();
-        if (location != null) {
-            userMetadata.setUserLocation(location);
+    /**
+     * @return the age in full years of a user born on the given date, or -1 if it is unknown.
+     */
+    private static int getAge(Date birthday) {
+        if (birthday == null) {
+            return -1;
+        }
+        Calendar birth = Calendar.getInstance();
+        birth.setTime(birthday);
+        Calendar now = Calendar.getInstance();
+        if (!now.after(birth)) {
+            return -1;
         }
 
-        options.setUserMetadata(userMetadata);
-        return options;
+        int age = now.get(Calendar.YEAR) - birth.get(Calendar.YEAR);
+        if (now.get(Calendar.DAY_OF_YEAR) < birth.get(Calendar.DAY_OF_YEAR)) {
+            age--;
+        }
+        return Math.max(age, 0);
     }
 
     public ArrayList<String> parseZoneList(Bundle serverParams) {
@@ -0,0 +1,66 @@
+package com.applovin.mediation;
+
+/**
+ * The {@link AppLovinAdPoolStats} class is a snapshot of the interstitial ads pooled by the
+ * adapter for one zone.
+ */
+public final class AppLovinAdPoolStats {
+
+    private final int mAvailableAds;
+    private final long mAddedAds;
+    private final long mServedAds;
+    private final long mExpiredAds;
+    private final long mEvictedAds;
+
+    AppLovinAdPoolStats(int availableAds, long addedAds, long servedAds, long expiredAds,
+                        long evictedAds) {
+        mAvailableAds = availableAds;
+        mAddedAds = addedAds;
+        mServedAds = servedAds;
+        mExpiredAds = expiredAds;
+        mEvictedAds = evictedAds;
+    }
+
+    /**
+     * @return the number of ads ready to be shown.
+     */
+    public int getAvailableAds() {
+        return mAvailableAds;
+    }
+
+    /**
+     * @return the number of ads added to the pool since the adapter started.
+     */
+    public long getAddedAds() {
+        return mAddedAds;
+    }
+
+    /**
+     * @return the number of ads taken from the pool to be shown since the adapter started.
+     */
+    public long getServedAds() {
+        return mServedAds;
+    }
+
+    /**
+     * @return the number of ads removed since the adapter started because they were kept for
+     * longer than their time to live.
+     */
+    public long getExpiredAds() {
+        return mExpiredAds;
+    }
+
+    /**
+     * @return the number of ads removed since the adapter started to make room for newer ads.
+     */
+    public long getEvictedAds() {
+        return mEvictedAds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "AppLovinAdPoolStats{available=%d, added=%d, served=%d, expired=%d, evicted=%d}",
+                mAvailableAds, mAddedAds, mServedAds, mExpiredAds, mEvictedAds);
+    }
+}
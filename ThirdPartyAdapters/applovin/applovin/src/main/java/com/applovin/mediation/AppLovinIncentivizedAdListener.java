@@ -6,7 +6,6 @@ import com.applovin.sdk.AppLovinAdDisplayListener;
 import com.applovin.sdk.AppLovinAdRewardListener;
 import com.applovin.sdk.AppLovinAdVideoPlaybackListener;
 import com.google.android.gms.ads.mediation.MediationRewardedAdCallback;
-import com.google.ads.mediation.applovin.AppLovinMediationAdapter;
 import com.google.ads.mediation.applovin.AppLovinRewardItem;
 import com.google.android.gms.ads.mediation.MediationRewardedAdConfiguration;
 
@@ -27,11 +26,9 @@ public class AppLovinIncentivizedAdListener
 
     private boolean mFullyWatched;
     private AppLovinRewardItem mRewardItem;
-    private String mZoneId;
 
     public AppLovinIncentivizedAdListener(MediationRewardedAdConfiguration adConfiguration,
                                           MediationRewardedAdCallback mRewardedAdCallback) {
-        mZoneId = AppLovinUtils.retrieveZoneId(adConfiguration.getServerParameters());
         this.mRewardedAdCallback = mRewardedAdCallback;
     }
 
@@ -46,7 +43,6 @@ public class AppLovinIncentivizedAdListener
     @Override
     public void adHidden(AppLovinAd ad) {
         ApplovinAdapter.log(DEBUG, "Rewarded video dismissed");
-        AppLovinMediationAdapter.INCENTIVIZED_ADS.remove(mZoneId);
         if (mFullyWatched) {
             mRewardedAdCallback.onUserEarnedReward(mRewardItem);
         }
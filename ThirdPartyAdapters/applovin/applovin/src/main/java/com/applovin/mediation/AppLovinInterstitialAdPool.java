@@ -0,0 +1,226 @@
+package com.applovin.mediation;
+
+import com.applovin.sdk.AppLovinAd;
+import com.applovin.sdk.AppLovinSdk;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link AppLovinInterstitialAdPool} class keeps the interstitial ads loaded by the adapter
+ * until they are shown, in one pool per SDK key and zone, so that an ad is only shown by the SDK
+ * that loaded it. Each pool holds at most {@link #getCapacity()} ads: adding an ad to a full pool
+ * evicts its oldest ad. Ads that stay in a pool for longer than {@link #getTimeToLiveMillis()}
+ * are expired and never shown.
+ *
+ * <p>The pools do not lock: ads are kept in lock-free queues, so zones never wait on each other.
+ */
+final class AppLovinInterstitialAdPool {
+
+    /**
+     * Default maximum number of ads kept per zone.
+     */
+    static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Default time an ad is kept before it is expired, in milliseconds.
+     */
+    static final long DEFAULT_TIME_TO_LIVE_MILLIS = 30 * 60 * 1000;
+
+    private static final AppLovinInterstitialAdPool instance = new AppLovinInterstitialAdPool();
+
+    /**
+     * Pools keyed by SDK key and zone.
+     */
+    private final ConcurrentHashMap<String, ZonePool> mZonePools = new ConcurrentHashMap<>();
+
+    private volatile int mCapacity = DEFAULT_CAPACITY;
+    private volatile long mTimeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+
+    static AppLovinInterstitialAdPool getInstance() {
+        return instance;
+    }
+
+    private AppLovinInterstitialAdPool() {
+    }
+
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Sets the maximum number of ads kept per zone. Pools holding more ads are trimmed the next
+     * time an ad is added to them.
+     */
+    void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        mCapacity = capacity;
+    }
+
+    long getTimeToLiveMillis() {
+        return mTimeToLiveMillis;
+    }
+
+    /**
+     * Sets the time an ad is kept before it is expired. Applies to the ads already in the pools.
+     */
+    void setTimeToLiveMillis(long timeToLiveMillis) {
+        if (timeToLiveMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "Time to live must be positive: " + timeToLiveMillis);
+        }
+        mTimeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * Adds an ad loaded by the given SDK to the pool of the zone, evicting the oldest ads if the
+     * pool is full.
+     */
+    void offer(AppLovinSdk sdk, String zoneId, AppLovinAd ad) {
+        ZonePool pool = getZonePool(sdk, zoneId);
+        pool.expireStaleAds(mTimeToLiveMillis);
+
+        pool.mAds.offer(new PooledAd(ad));
+        pool.mSize.incrementAndGet();
+        pool.mAddedAds.incrementAndGet();
+
+        int capacity = mCapacity;
+        while (pool.mSize.get() > capacity && pool.remove() != null) {
+            pool.mEvictedAds.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes and returns the oldest ad loaded by the given SDK for the zone that has not expired.
+     *
+     * @return the ad, or {@code null} if the zone has no ad left.
+     */
+    AppLovinAd poll(AppLovinSdk sdk, String zoneId) {
+        ZonePool pool = getZonePool(sdk, zoneId);
+        long timeToLiveMillis = mTimeToLiveMillis;
+
+        PooledAd pooledAd;
+        while ((pooledAd = pool.remove()) != null) {
+            if (pooledAd.isExpired(timeToLiveMillis)) {
+                pool.mExpiredAds.incrementAndGet();
+            } else {
+                pool.mServedAds.incrementAndGet();
+                return pooledAd.mAd;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of ads loaded by the given SDK for the zone that have not expired.
+     */
+    int size(AppLovinSdk sdk, String zoneId) {
+        ZonePool pool = getZonePool(sdk, zoneId);
+        pool.expireStaleAds(mTimeToLiveMillis);
+        return pool.mSize.get();
+    }
+
+    /**
+     * @return the statistics of the zone, summed over the pools of every SDK key.
+     */
+    AppLovinAdPoolStats getStats(String zoneId) {
+        String zone = zoneId != null ? zoneId : "";
+        int size = 0;
+        long addedAds = 0;
+        long servedAds = 0;
+        long expiredAds = 0;
+        long evictedAds = 0;
+        for (ZonePool pool : mZonePools.values()) {
+            if (!pool.mZoneId.equals(zone)) {
+                continue;
+            }
+            pool.expireStaleAds(mTimeToLiveMillis);
+            size += pool.mSize.get();
+            addedAds += pool.mAddedAds.get();
+            servedAds += pool.mServedAds.get();
+            expiredAds += pool.mExpiredAds.get();
+            evictedAds += pool.mEvictedAds.get();
+        }
+        return new AppLovinAdPoolStats(size, addedAds, servedAds, expiredAds, evictedAds);
+    }
+
+    private ZonePool getZonePool(AppLovinSdk sdk, String zoneId) {
+        String zone = zoneId != null ? zoneId : "";
+        String key = sdk.getSdkKey() + "/" + zone;
+        ZonePool pool = mZonePools.get(key);
+        if (pool == null) {
+            ZonePool newPool = new ZonePool(zone);
+            pool = mZonePools.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * The ads of one zone loaded by one SDK, oldest first.
+     */
+    private static final class ZonePool {
+
+        private final String mZoneId;
+
+        private final ConcurrentLinkedQueue<PooledAd> mAds = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Number of ads in {@link #mAds}, since {@link ConcurrentLinkedQueue#size()} walks the
+         * whole queue.
+         */
+        private final AtomicInteger mSize = new AtomicInteger();
+
+        private final AtomicLong mAddedAds = new AtomicLong();
+        private final AtomicLong mServedAds = new AtomicLong();
+        private final AtomicLong mExpiredAds = new AtomicLong();
+        private final AtomicLong mEvictedAds = new AtomicLong();
+
+        ZonePool(String zoneId) {
+            mZoneId = zoneId;
+        }
+
+        PooledAd remove() {
+            PooledAd pooledAd = mAds.poll();
+            if (pooledAd != null) {
+                mSize.decrementAndGet();
+            }
+            return pooledAd;
+        }
+
+        /**
+         * Removes the expired ads at the head of the queue. Ads are queued in the order they were
+         * loaded, so the first ad that has not expired ends the sweep.
+         */
+        void expireStaleAds(long timeToLiveMillis) {
+            PooledAd head;
+            while ((head = mAds.peek()) != null && head.isExpired(timeToLiveMillis)) {
+                if (mAds.remove(head)) {
+                    mSize.decrementAndGet();
+                    mExpiredAds.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static final class PooledAd {
+
+        private final AppLovinAd mAd;
+        private final long mLoadTimeMillis;
+
+        PooledAd(AppLovinAd ad) {
+            mAd = ad;
+            mLoadTimeMillis = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long timeToLiveMillis) {
+            return System.currentTimeMillis() - mLoadTimeMillis > timeToLiveMillis;
+        }
+    }
+}
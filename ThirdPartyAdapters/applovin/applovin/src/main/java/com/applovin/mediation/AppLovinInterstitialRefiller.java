@@ -0,0 +1,300 @@
+package com.applovin.mediation;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import com.applovin.sdk.AppLovinAd;
+import com.applovin.sdk.AppLovinAdLoadListener;
+import com.applovin.sdk.AppLovinAdSize;
+import com.applovin.sdk.AppLovinSdk;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static android.util.Log.DEBUG;
+import static android.util.Log.ERROR;
+
+/**
+ * The {@link AppLovinInterstitialRefiller} class loads interstitial ads in the background so that
+ * the pool of each SDK key and zone requested by the adapter holds at least
+ * {@link #getLowWatermark()} ads. At most {@link #getMaxConcurrentRefills()} ads are loaded at a
+ * time across all zones, and no ad is loaded while the app is in the background.
+ *
+ * <p>Refills are disabled until a low watermark is set.
+ */
+final class AppLovinInterstitialRefiller {
+
+    /**
+     * Default maximum number of background loads running at the same time.
+     */
+    static final int DEFAULT_MAX_CONCURRENT_REFILLS = 2;
+
+    /**
+     * Time a zone is not refilled after a background load failed, in milliseconds.
+     */
+    static final long RETRY_DELAY_MILLIS = 30000;
+
+    private static final AppLovinInterstitialRefiller instance =
+            new AppLovinInterstitialRefiller(AppLovinInterstitialAdPool.getInstance());
+
+    private final AppLovinInterstitialAdPool mPool;
+
+    /**
+     * Refill state keyed by SDK key and zone, like the pools it feeds.
+     */
+    private final ConcurrentHashMap<String, ZoneRefill> mZoneRefills = new ConcurrentHashMap<>();
+
+    private final AtomicInteger mRunningRefills = new AtomicInteger();
+
+    private final AtomicBoolean mIsLifecycleTracked = new AtomicBoolean();
+
+    private volatile int mLowWatermark = 0;
+    private volatile int mMaxConcurrentRefills = DEFAULT_MAX_CONCURRENT_REFILLS;
+    private volatile boolean mIsInBackground = false;
+
+    static AppLovinInterstitialRefiller getInstance() {
+        return instance;
+    }
+
+    private AppLovinInterstitialRefiller(AppLovinInterstitialAdPool pool) {
+        mPool = pool;
+    }
+
+    int getLowWatermark() {
+        return mLowWatermark;
+    }
+
+    /**
+     * Sets the number of ads below which a zone's pool is refilled, {@code 0} to disable refills.
+     * The pool capacity caps the watermark.
+     */
+    void setLowWatermark(int lowWatermark) {
+        if (lowWatermark < 0) {
+            throw new IllegalArgumentException(
+                    "Low watermark must not be negative: " + lowWatermark);
+        }
+        mLowWatermark = lowWatermark;
+        refillAll();
+    }
+
+    int getMaxConcurrentRefills() {
+        return mMaxConcurrentRefills;
+    }
+
+    void setMaxConcurrentRefills(int maxConcurrentRefills) {
+        if (maxConcurrentRefills < 1) {
+            throw new IllegalArgumentException(
+                    "Maximum concurrent refills must be positive: " + maxConcurrentRefills);
+        }
+        mMaxConcurrentRefills = maxConcurrentRefills;
+        refillAll();
+    }
+
+    int getRunningRefills() {
+        return mRunningRefills.get();
+    }
+
+    /**
+     * Keeps the pool of the zone refilled with ads loaded by the given SDK, and refills it now if
+     * needed.
+     *
+     * @param context any context of the app, used to follow its foreground state.
+     * @param zoneId  the AppLovin zone ID, or an empty string for the default zone.
+     * @param sdk     the AppLovin SDK loading the ads of the zone.
+     */
+    void track(Context context, String zoneId, AppLovinSdk sdk) {
+        trackLifecycle(context);
+
+        String zone = zoneId != null ? zoneId : "";
+        String key = getKey(sdk, zone);
+        ZoneRefill zoneRefill = mZoneRefills.get(key);
+        if (zoneRefill == null) {
+            ZoneRefill newZoneRefill = new ZoneRefill(zone, sdk);
+            zoneRefill = mZoneRefills.putIfAbsent(key, newZoneRefill);
+            if (zoneRefill == null) {
+                zoneRefill = newZoneRefill;
+            }
+        }
+        refill(zoneRefill);
+    }
+
+    /**
+     * Refills the pool of the SDK and zone if it fell below the low watermark.
+     */
+    void refill(AppLovinSdk sdk, String zoneId) {
+        ZoneRefill zoneRefill = mZoneRefills.get(getKey(sdk, zoneId != null ? zoneId : ""));
+        if (zoneRefill != null) {
+            refill(zoneRefill);
+        }
+    }
+
+    private static String getKey(AppLovinSdk sdk, String zoneId) {
+        return sdk.getSdkKey() + "/" + zoneId;
+    }
+
+    private void refillAll() {
+        for (ZoneRefill zoneRefill : mZoneRefills.values()) {
+            refill(zoneRefill);
+        }
+    }
+
+    private void refill(final ZoneRefill zoneRefill) {
+        int lowWatermark = Math.min(mLowWatermark, mPool.getCapacity());
+        if (lowWatermark == 0 || mIsInBackground) {
+            return;
+        }
+        if (zoneRefill.mLastFailureTimeMillis != 0 && SystemClock.elapsedRealtime()
+                - zoneRefill.mLastFailureTimeMillis < RETRY_DELAY_MILLIS) {
+            return;
+        }
+        if (mPool.size(zoneRefill.mSdk, zoneRefill.mZoneId) >= lowWatermark) {
+            return;
+        }
+        if (!zoneRefill.mIsRefilling.compareAndSet(false, true)) {
+            return;
+        }
+        if (!acquireRefillSlot()) {
+            zoneRefill.mIsRefilling.set(false);
+            return;
+        }
+
+        ApplovinAdapter.log(DEBUG,
+                "Refilling interstitial pool for zone: " + zoneRefill.mZoneId);
+        AppLovinAdLoadListener listener = new AppLovinAdLoadListener() {
+            @Override
+            public void adReceived(AppLovinAd ad) {
+                mPool.offer(zoneRefill.mSdk, zoneRefill.mZoneId, ad);
+                finishRefill(zoneRefill);
+                // Top the pool up further, and let zones waiting for a slot load.
+                refillAll();
+            }
+
+            @Override
+            public void failedToReceiveAd(int code) {
+                ApplovinAdapter.log(ERROR, "Interstitial refill for zone: " + zoneRefill.mZoneId
+                        + " failed with error: " + code);
+                zoneRefill.mLastFailureTimeMillis = SystemClock.elapsedRealtime();
+                finishRefill(zoneRefill);
+                refillAll();
+            }
+        };
+
+        if (!TextUtils.isEmpty(zoneRefill.mZoneId)) {
+            zoneRefill.mSdk.getAdService().loadNextAdForZoneId(zoneRefill.mZoneId, listener);
+        } else {
+            zoneRefill.mSdk.getAdService().loadNextAd(AppLovinAdSize.INTERSTITIAL, listener);
+        }
+    }
+
+    private boolean acquireRefillSlot() {
+        while (true) {
+            int runningRefills = mRunningRefills.get();
+            if (runningRefills >= mMaxConcurrentRefills) {
+                return false;
+            }
+            if (mRunningRefills.compareAndSet(runningRefills, runningRefills + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void finishRefill(ZoneRefill zoneRefill) {
+        mRunningRefills.decrementAndGet();
+        zoneRefill.mIsRefilling.set(false);
+    }
+
+    private void trackLifecycle(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        if (!(applicationContext instanceof Application)
+                || !mIsLifecycleTracked.compareAndSet(false, true)) {
+            return;
+        }
+        // The activity requesting the first ad is already started and will not report it.
+        ((Application) applicationContext).registerActivityLifecycleCallbacks(
+                new ForegroundTracker(context instanceof Activity ? (Activity) context : null));
+    }
+
+    /**
+     * Pauses the refills while no activity of the app is started.
+     */
+    private final class ForegroundTracker implements Application.ActivityLifecycleCallbacks {
+
+        /**
+         * Started activities, weakly held. Stops of activities that were never seen starting are
+         * ignored, so that an activity started before the tracker was registered can not mark the
+         * app as backgrounded while another activity is in the foreground.
+         */
+        private final Set<Activity> mStartedActivities =
+                Collections.newSetFromMap(new WeakHashMap<Activity, Boolean>());
+
+        ForegroundTracker(Activity startedActivity) {
+            if (startedActivity != null) {
+                mStartedActivities.add(startedActivity);
+            }
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            mStartedActivities.add(activity);
+            if (mIsInBackground) {
+                mIsInBackground = false;
+                refillAll();
+            }
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            if (mStartedActivities.remove(activity) && mStartedActivities.isEmpty()) {
+                mIsInBackground = true;
+            }
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            // The activity the tracker was seeded with may never report a stop to it.
+            onActivityStopped(activity);
+        }
+    }
+
+    private static final class ZoneRefill {
+
+        private final String mZoneId;
+        private final AppLovinSdk mSdk;
+        private final AtomicBoolean mIsRefilling = new AtomicBoolean();
+
+        /**
+         * {@link SystemClock#elapsedRealtime()} of the last failed refill, or {@code 0} if none
+         * failed.
+         */
+        private volatile long mLastFailureTimeMillis;
+
+        ZoneRefill(String zoneId, AppLovinSdk sdk) {
+            mZoneId = zoneId;
+            mSdk = sdk;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.applovin.mediation;
+
+import android.util.Log;
+
+import com.applovin.nativeAds.AppLovinNativeAd;
+import com.applovin.nativeAds.AppLovinNativeAdPrecacheListener;
+import com.applovin.sdk.AppLovinSdk;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import static com.applovin.mediation.AppLovinNativeAdapter.TAG;
+
+/**
+ * The {@link AppLovinNativeAdCache} class keeps the native ads that AppLovin returned in a batch
+ * beyond the one that was requested, so that later native requests are served without a network
+ * round trip. The images of a cached ad are precached as soon as it is added, and the ad is only
+ * served once they are. Ads are kept per SDK key, at most {@link #CAPACITY} per key, and for at
+ * most {@link #TIME_TO_LIVE_MILLIS}.
+ */
+final class AppLovinNativeAdCache {
+
+    /**
+     * Number of native ads requested from AppLovin when the cache can not serve a request.
+     */
+    static final int BATCH_SIZE = 3;
+
+    /**
+     * Maximum number of native ads cached per SDK key.
+     */
+    static final int CAPACITY = 8;
+
+    /**
+     * Time a native ad is kept before it is discarded, in milliseconds.
+     */
+    static final long TIME_TO_LIVE_MILLIS = 30 * 60 * 1000;
+
+    private static final AppLovinNativeAdCache instance = new AppLovinNativeAdCache();
+
+    /**
+     * Cached ads keyed by SDK key, oldest first. Guarded by this cache's lock.
+     */
+    private final HashMap<String, LinkedList<CachedNativeAd>> mCachedAds = new HashMap<>();
+
+    static AppLovinNativeAdCache getInstance() {
+        return instance;
+    }
+
+    private AppLovinNativeAdCache() {
+    }
+
+    /**
+     * Caches the given ad and starts precaching its images. The oldest ad of the SDK is
+     * discarded if the cache is full.
+     */
+    void add(AppLovinSdk sdk, AppLovinNativeAd nativeAd) {
+        final CachedNativeAd cachedAd = new CachedNativeAd(nativeAd);
+        synchronized (this) {
+            LinkedList<CachedNativeAd> cachedAds = mCachedAds.get(sdk.getSdkKey());
+            if (cachedAds == null) {
+                cachedAds = new LinkedList<>();
+                mCachedAds.put(sdk.getSdkKey(), cachedAds);
+            }
+            discardExpired(cachedAds);
+            cachedAds.add(cachedAd);
+            if (cachedAds.size() > CAPACITY) {
+                cachedAds.poll();
+            }
+        }
+
+        AppLovinNativeAdPrecacheListener precacheListener = new AppLovinNativeAdPrecacheListener() {
+            @Override
+            public void onNativeAdImagesPrecached(AppLovinNativeAd ad) {
+                synchronized (AppLovinNativeAdCache.this) {
+                    cachedAd.mIsPrecached = true;
+                }
+            }
+
+            @Override
+            public void onNativeAdVideoPreceached(AppLovinNativeAd ad) {
+                // Do nothing.
+            }
+
+            @Override
+            public void onNativeAdImagePrecachingFailed(AppLovinNativeAd ad, int errorCode) {
+                Log.w(TAG, "Failed to pre cache images of a cached native ad " + errorCode);
+                remove(cachedAd);
+            }
+
+            @Override
+            public void onNativeAdVideoPrecachingFailed(AppLovinNativeAd ad, int errorCode) {
+                // Do nothing.
+            }
+        };
+        sdk.getNativeAdService().precacheResources(nativeAd, precacheListener);
+    }
+
+    /**
+     * Removes and returns the oldest cached ad of the SDK whose images are precached.
+     *
+     * @return the ad, or {@code null} if none is ready.
+     */
+    synchronized AppLovinNativeAd poll(AppLovinSdk sdk) {
+        LinkedList<CachedNativeAd> cachedAds = mCachedAds.get(sdk.getSdkKey());
+        if (cachedAds == null) {
+            return null;
+        }
+        discardExpired(cachedAds);
+
+        Iterator<CachedNativeAd> iterator = cachedAds.iterator();
+        while (iterator.hasNext()) {
+            CachedNativeAd cachedAd = iterator.next();
+            if (cachedAd.mIsPrecached) {
+                iterator.remove();
+                return cachedAd.mNativeAd;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void remove(CachedNativeAd cachedAd) {
+        for (LinkedList<CachedNativeAd> cachedAds : mCachedAds.values()) {
+            if (cachedAds.remove(cachedAd)) {
+                return;
+            }
+        }
+    }
+
+    private static void discardExpired(LinkedList<CachedNativeAd> cachedAds) {
+        long now = System.currentTimeMillis();
+        Iterator<CachedNativeAd> iterator = cachedAds.iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().mLoadTimeMillis > TIME_TO_LIVE_MILLIS) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class CachedNativeAd {
+
+        private final AppLovinNativeAd mNativeAd;
+        private final long mLoadTimeMillis;
+        private boolean mIsPrecached;
+
+        CachedNativeAd(AppLovinNativeAd nativeAd) {
+            mNativeAd = nativeAd;
+            mLoadTimeMillis = System.currentTimeMillis();
+        }
+    }
+}
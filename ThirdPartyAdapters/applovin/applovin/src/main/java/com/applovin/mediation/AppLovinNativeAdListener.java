@@ -36,8 +36,21 @@ class AppLovinNativeAdListener
 
     @Override
     public void onNativeAdsLoaded(List<AppLovinNativeAd> nativeAds) {
-        if (nativeAds.size() > 0 && isValidNativeAd(nativeAds.get(0))) {
-            mSdk.getNativeAdService().precacheResources(nativeAds.get(0), this);
+        // Serve the first valid ad of the batch and cache the others for later requests.
+        AppLovinNativeAd requestedAd = null;
+        for (AppLovinNativeAd nativeAd : nativeAds) {
+            if (!isValidNativeAd(nativeAd)) {
+                continue;
+            }
+            if (requestedAd == null) {
+                requestedAd = nativeAd;
+            } else {
+                AppLovinNativeAdCache.getInstance().add(mSdk, nativeAd);
+            }
+        }
+
+        if (requestedAd != null) {
+            mSdk.getNativeAdService().precacheResources(requestedAd, this);
         } else {
             Log.e(TAG,
                     "Ad from AppLovin doesn't have all assets required for the app install ad format");
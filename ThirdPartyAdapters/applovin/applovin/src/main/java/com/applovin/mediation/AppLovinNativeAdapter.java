@@ -1,9 +1,11 @@
 package com.applovin.mediation;
 
 import android.content.Context;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Log;
 
+import com.applovin.nativeAds.AppLovinNativeAd;
 import com.applovin.sdk.AppLovinSdk;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.mediation.MediationNativeAdapter;
@@ -31,9 +33,23 @@ public class AppLovinNativeAdapter
         }
 
         final AppLovinSdk sdk = AppLovinUtils.retrieveSdk(serverParameters, context);
-        AppLovinNativeAdListener listener =
+        final AppLovinNativeAdListener listener =
                 new AppLovinNativeAdListener(this, mediationNativeListener, sdk, context);
-        sdk.getNativeAdService().loadNativeAds(1, listener);
+
+        final AppLovinNativeAd cachedAd = AppLovinNativeAdCache.getInstance().poll(sdk);
+        if (cachedAd != null) {
+            Log.d(TAG, "Serving native ad from cache.");
+            // The mapper decodes the precached images, build it off the calling thread as the
+            // AppLovin SDK does for loaded ads. The listener posts onAdLoaded to the UI thread.
+            AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onNativeAdImagesPrecached(cachedAd);
+                }
+            });
+            return;
+        }
+        sdk.getNativeAdService().loadNativeAds(AppLovinNativeAdCache.BATCH_SIZE, listener);
     }
 
     @Override
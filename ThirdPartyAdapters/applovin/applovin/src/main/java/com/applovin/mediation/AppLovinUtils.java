@@ -15,6 +15,7 @@ import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdSize;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * A helper class used by {@link AppLovinAdapter}.
@@ -31,6 +32,25 @@ public class AppLovinUtils {
     private static final String ZONE_ID = "zone_id";
   }
 
+  /**
+   * Key of the SDK instance configured from the Android Manifest in {@link #SDK_CACHE}. AppLovin
+   * SDK keys are never empty.
+   */
+  private static final String MANIFEST_SDK_KEY = "";
+
+  /**
+   * Configured SDK instances, keyed by SDK key, so that each one is set up only once per process.
+   */
+  private static final ConcurrentHashMap<String, AppLovinSdk> SDK_CACHE =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The Android Manifest metadata, read on first use. The manifest can not change while the
+   * process runs.
+   */
+  private static Bundle sManifestMetadata;
+  private static boolean sIsManifestMetadataRead;
+
   /**
    * Retrieves the appropriate instance of AppLovin's SDK from the SDK key given in the server
    * parameters, or Android Manifest.
@@ -38,8 +58,12 @@ public class AppLovinUtils {
   public static AppLovinSdk retrieveSdk(Bundle serverParameters, Context context) {
     final String sdkKey = (serverParameters != null) ?
         serverParameters.getString(ServerParameterKeys.SDK_KEY) : null;
+    final String cacheKey = !TextUtils.isEmpty(sdkKey) ? sdkKey : MANIFEST_SDK_KEY;
 
-    final AppLovinSdk sdk;
+    AppLovinSdk sdk = SDK_CACHE.get(cacheKey);
+    if (sdk != null) {
+      return sdk;
+    }
 
     if (!TextUtils.isEmpty(sdkKey)) {
       sdk = AppLovinSdk.getInstance(sdkKey, new AppLovinSdkSettings(), context);
@@ -50,7 +74,8 @@ public class AppLovinUtils {
     sdk.setPluginVersion(BuildConfig.VERSION_NAME);
     sdk.setMediationProvider(AppLovinMediationProvider.ADMOB);
 
-    return sdk;
+    final AppLovinSdk cachedSdk = SDK_CACHE.putIfAbsent(cacheKey, sdk);
+    return (cachedSdk != null) ? cachedSdk : sdk;
   }
 
   /**
@@ -66,17 +91,22 @@ public class AppLovinUtils {
     return false;
   }
 
-  private static Bundle retrieveMetadata(Context context) {
+  private static synchronized Bundle retrieveMetadata(Context context) {
+    if (sIsManifestMetadataRead) {
+      return sManifestMetadata;
+    }
+
     try {
       final PackageManager pm = context.getPackageManager();
       final ApplicationInfo ai = pm.getApplicationInfo(context.getPackageName(),
           PackageManager.GET_META_DATA);
 
-      return ai.metaData;
+      sManifestMetadata = ai.metaData;
     } catch (PackageManager.NameNotFoundException ignored) {
     }
+    sIsManifestMetadataRead = true;
 
-    return null;
+    return sManifestMetadata;
   }
 
   /**
@@ -31,9 +31,6 @@ import com.google.android.gms.ads.mediation.OnContextChangedListener;
 import com.google.ads.mediation.applovin.AppLovinMediationAdapter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
 
 import static android.util.Log.DEBUG;
 import static android.util.Log.ERROR;
@@ -52,9 +49,10 @@ public class ApplovinAdapter extends AppLovinMediationAdapter
     private static final int BANNER_HEIGHT_OFFSET_TOLERANCE = 10;
 
     // Interstitial globals.
-    private static final HashMap<String, Queue<AppLovinAd>> INTERSTITIAL_AD_QUEUES =
-            new HashMap<>();
-    private static final Object INTERSTITIAL_AD_QUEUES_LOCK = new Object();
+    private static final AppLovinInterstitialAdPool INTERSTITIAL_AD_POOL =
+            AppLovinInterstitialAdPool.getInstance();
+    private static final AppLovinInterstitialRefiller INTERSTITIAL_AD_REFILLER =
+            AppLovinInterstitialRefiller.getInstance();
 
     // Parent objects.
     private AppLovinSdk mSdk;
@@ -97,22 +95,14 @@ public class ApplovinAdapter extends AppLovinMediationAdapter
                 log(DEBUG, "Interstitial did load ad: " + ad.getAdIdNumber() + " for zone: "
                         + mZoneId + " and placement: " + mPlacement);
 
-                synchronized (INTERSTITIAL_AD_QUEUES_LOCK) {
-                    Queue<AppLovinAd> preloadedAds = INTERSTITIAL_AD_QUEUES.get(mZoneId);
-                    if (preloadedAds == null) {
-                        preloadedAds = new LinkedList<>();
-                        INTERSTITIAL_AD_QUEUES.put(mZoneId, preloadedAds);
-                    }
-
-                    preloadedAds.offer(ad);
+                INTERSTITIAL_AD_POOL.offer(mSdk, mZoneId, ad);
 
-                    AppLovinSdkUtils.runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            mMediationInterstitialListener.onAdLoaded(ApplovinAdapter.this);
-                        }
-                    });
-                }
+                AppLovinSdkUtils.runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        mMediationInterstitialListener.onAdLoaded(ApplovinAdapter.this);
+                    }
+                });
             }
 
             @Override
@@ -129,64 +119,62 @@ public class ApplovinAdapter extends AppLovinMediationAdapter
             }
         };
 
-        synchronized (INTERSTITIAL_AD_QUEUES_LOCK) {
-            final Queue<AppLovinAd> queue = INTERSTITIAL_AD_QUEUES.get(mZoneId);
-            if (queue == null || (queue != null && queue.isEmpty())) {
-                // If we don't already have enqueued ads, fetch from SDK.
+        if (INTERSTITIAL_AD_POOL.size(mSdk, mZoneId) == 0) {
+            // If we don't already have pooled ads, fetch from SDK.
 
-                if (!TextUtils.isEmpty(mZoneId)) {
-                    mSdk.getAdService().loadNextAdForZoneId(mZoneId, adLoadListener);
-                } else {
-                    mSdk.getAdService().loadNextAd(AppLovinAdSize.INTERSTITIAL, adLoadListener);
-                }
+            if (!TextUtils.isEmpty(mZoneId)) {
+                mSdk.getAdService().loadNextAdForZoneId(mZoneId, adLoadListener);
             } else {
-                log(DEBUG, "Enqueued interstitial found. Finishing load...");
-
-                AppLovinSdkUtils.runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        mMediationInterstitialListener.onAdLoaded(ApplovinAdapter.this);
-                    }
-                });
+                mSdk.getAdService().loadNextAd(AppLovinAdSize.INTERSTITIAL, adLoadListener);
             }
+        } else {
+            log(DEBUG, "Pooled interstitial found. Finishing load...");
+
+            AppLovinSdkUtils.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    mMediationInterstitialListener.onAdLoaded(ApplovinAdapter.this);
+                }
+            });
         }
+
+        // Keep the zone's pool topped up for the next requests.
+        INTERSTITIAL_AD_REFILLER.track(context, mZoneId, mSdk);
     }
 
     @Override
     public void showInterstitial() {
-        synchronized (INTERSTITIAL_AD_QUEUES_LOCK) {
-            // Update mute state.
-            mSdk.getSettings().setMuted(AppLovinUtils.shouldMuteAudio(mNetworkExtras));
-
-            final Queue<AppLovinAd> queue = INTERSTITIAL_AD_QUEUES.get(mZoneId);
-            final AppLovinAd dequeuedAd = (queue != null) ? queue.poll() : null;
-
-            final AppLovinInterstitialAdDialog interstitialAd =
-                    AppLovinInterstitialAd.create(mSdk, mContext);
-
-            final AppLovinInterstitialAdListener listener =
-                    new AppLovinInterstitialAdListener(this, mMediationInterstitialListener);
-            interstitialAd.setAdDisplayListener(listener);
-            interstitialAd.setAdClickListener(listener);
-            interstitialAd.setAdVideoPlaybackListener(listener);
-
-            if (dequeuedAd != null) {
-                log(DEBUG, "Showing interstitial for zone: " + mZoneId + " placement: "
-                        + mPlacement);
-                interstitialAd.showAndRender(dequeuedAd, mPlacement);
-            } else {
-                log(DEBUG, "Attempting to show interstitial before one was loaded");
+        // Update mute state.
+        mSdk.getSettings().setMuted(AppLovinUtils.shouldMuteAudio(mNetworkExtras));
 
-                // Check if we have a default zone interstitial available.
-                if (TextUtils.isEmpty(mZoneId) && interstitialAd.isAdReadyToDisplay()) {
-                    log(DEBUG, "Showing interstitial preloaded by SDK");
-                    interstitialAd.show(mPlacement);
-                }
-                // TODO: Show ad for zone identifier if exists
-                else {
-                    mMediationInterstitialListener.onAdOpened(this);
-                    mMediationInterstitialListener.onAdClosed(this);
-                }
+        final AppLovinAd dequeuedAd = INTERSTITIAL_AD_POOL.poll(mSdk, mZoneId);
+        INTERSTITIAL_AD_REFILLER.refill(mSdk, mZoneId);
+
+        final AppLovinInterstitialAdDialog interstitialAd =
+                AppLovinInterstitialAd.create(mSdk, mContext);
+
+        final AppLovinInterstitialAdListener listener =
+                new AppLovinInterstitialAdListener(this, mMediationInterstitialListener);
+        interstitialAd.setAdDisplayListener(listener);
+        interstitialAd.setAdClickListener(listener);
+        interstitialAd.setAdVideoPlaybackListener(listener);
+
+        if (dequeuedAd != null) {
+            log(DEBUG, "Showing interstitial for zone: " + mZoneId + " placement: "
+                    + mPlacement);
+            interstitialAd.showAndRender(dequeuedAd, mPlacement);
+        } else {
+            log(DEBUG, "Attempting to show interstitial before one was loaded");
+
+            // Check if we have a default zone interstitial available.
+            if (TextUtils.isEmpty(mZoneId) && interstitialAd.isAdReadyToDisplay()) {
+                log(DEBUG, "Showing interstitial preloaded by SDK");
+                interstitialAd.show(mPlacement);
+            }
+            // TODO: Show ad for zone identifier if exists
+            else {
+                mMediationInterstitialListener.onAdOpened(this);
+                mMediationInterstitialListener.onAdClosed(this);
             }
         }
     }
@@ -268,6 +256,55 @@ public class ApplovinAdapter extends AppLovinMediationAdapter
         }
     }
 
+    //region Interstitial ad pool.
+    /**
+     * Sets the maximum number of loaded interstitial ads kept per zone. Defaults to
+     * {@link AppLovinInterstitialAdPool#DEFAULT_CAPACITY}.
+     */
+    public static void setInterstitialPoolCapacity(int capacity) {
+        INTERSTITIAL_AD_POOL.setCapacity(capacity);
+    }
+
+    /**
+     * Sets the time a loaded interstitial ad can wait to be shown before it is discarded, in
+     * milliseconds. Defaults to {@link AppLovinInterstitialAdPool#DEFAULT_TIME_TO_LIVE_MILLIS}.
+     */
+    public static void setInterstitialAdTimeToLive(long timeToLiveMillis) {
+        INTERSTITIAL_AD_POOL.setTimeToLiveMillis(timeToLiveMillis);
+    }
+
+    /**
+     * Returns the number of interstitial ads pooled for the given zone, and how many were served,
+     * expired or evicted since the adapter started.
+     *
+     * @param zoneId the AppLovin zone ID, or an empty string for the default zone.
+     */
+    public static AppLovinAdPoolStats getInterstitialPoolStats(String zoneId) {
+        return INTERSTITIAL_AD_POOL.getStats(zoneId);
+    }
+
+    /**
+     * Enables the background refill of the interstitial ad pools: once an interstitial was
+     * requested for a zone, ads are loaded in the background whenever the zone has fewer than
+     * {@code lowWatermark} ads. Refills are paused while the app is in the background.
+     *
+     * @param lowWatermark the minimum number of ads to keep per zone, or {@code 0} to disable
+     *                     refills, which is the default.
+     */
+    public static void setInterstitialRefillLowWatermark(int lowWatermark) {
+        INTERSTITIAL_AD_REFILLER.setLowWatermark(lowWatermark);
+    }
+
+    /**
+     * Sets the maximum number of interstitial ads loaded in the background at the same time,
+     * across all zones. Defaults to
+     * {@link AppLovinInterstitialRefiller#DEFAULT_MAX_CONCURRENT_REFILLS}.
+     */
+    public static void setMaxConcurrentInterstitialRefills(int maxConcurrentRefills) {
+        INTERSTITIAL_AD_REFILLER.setMaxConcurrentRefills(maxConcurrentRefills);
+    }
+    //endregion
+
     // Logging
     public static void log(int priority, final String message) {
         if (LOGGING_ENABLED) {
@@ -0,0 +1,343 @@
+package com.google.ads.mediation.applovin;
+
+import static android.util.Log.DEBUG;
+import static com.applovin.mediation.ApplovinAdapter.log;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import com.applovin.adview.AppLovinIncentivizedInterstitial;
+import com.applovin.sdk.AppLovinAd;
+import com.applovin.sdk.AppLovinAdLoadListener;
+import com.applovin.sdk.AppLovinSdk;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link AppLovinIncentivizedAdPool} class preloads {@link AppLovinIncentivizedInterstitial}s
+ * ahead of the rewarded ad requests, in one pool per SDK key and zone. A request takes the oldest
+ * preloaded interstitial of its pool, or waits for one that is still loading, and the pool then
+ * preloads {@link #PRELOAD_AHEAD} more for the next request. A pool holds at most
+ * {@link #CAPACITY} interstitials that are loading or waiting to be taken, and discards the ones
+ * that waited for longer than {@link #TIME_TO_LIVE_MILLIS}, or that are still loading after
+ * {@link #LOAD_TIMEOUT_MILLIS}.
+ *
+ * <p>Each pool has its own lock, so zones load independently.
+ */
+final class AppLovinIncentivizedAdPool {
+
+    /**
+     * Maximum number of interstitials loading or preloaded per zone.
+     */
+    static final int CAPACITY = 3;
+
+    /**
+     * Number of spare interstitials preloaded per zone once a request has been served.
+     */
+    static final int PRELOAD_AHEAD = 1;
+
+    /**
+     * Time a preloaded interstitial is kept before it is discarded, in milliseconds.
+     */
+    static final long TIME_TO_LIVE_MILLIS = 30 * 60 * 1000;
+
+    /**
+     * Time an interstitial may stay loading before it is discarded, in milliseconds, so that a lost
+     * load callback does not hold a slot of the pool forever.
+     */
+    static final long LOAD_TIMEOUT_MILLIS = 60 * 1000;
+
+    private static final String DEFAULT_ZONE = "";
+
+    private static final AppLovinIncentivizedAdPool instance = new AppLovinIncentivizedAdPool();
+
+    /**
+     * Posts the load timeouts of the claimed interstitials.
+     */
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Receives the interstitial requested from the pool.
+     */
+    interface Listener {
+
+        void onAdLoaded(AppLovinIncentivizedInterstitial incentivizedInterstitial);
+
+        void onAdFailedToLoad(String errorMessage);
+    }
+
+    /**
+     * Pools keyed by SDK key and zone, so that an interstitial is only given to a request of the
+     * SDK that created it.
+     */
+    private final ConcurrentHashMap<String, ZonePool> mZonePools = new ConcurrentHashMap<>();
+
+    static AppLovinIncentivizedAdPool getInstance() {
+        return instance;
+    }
+
+    private AppLovinIncentivizedAdPool() {
+    }
+
+    /**
+     * Gives a loaded interstitial of the zone to the listener, loading one if none is preloaded.
+     * The interstitial leaves the pool: it belongs to the listener once it is loaded.
+     *
+     * @param zoneId   the AppLovin zone ID, or an empty string for the default zone.
+     * @param sdk      the AppLovin SDK creating the interstitials of the zone.
+     * @param listener the listener receiving the interstitial.
+     */
+    void acquire(String zoneId, AppLovinSdk sdk, Listener listener) {
+        ZonePool pool = getZonePool(zoneId, sdk);
+
+        PooledInterstitial readyInterstitial = null;
+        boolean isFull = false;
+        List<PooledInterstitial> preloads = new ArrayList<>();
+        List<Listener> timedOutListeners = new ArrayList<>();
+        synchronized (pool) {
+            pool.discardExpired(timedOutListeners);
+
+            PooledInterstitial unclaimed = pool.findUnclaimed();
+            if (unclaimed != null && unclaimed.mIsLoaded) {
+                pool.mInterstitials.remove(unclaimed);
+                readyInterstitial = unclaimed;
+            } else if (unclaimed != null) {
+                // Wait for the oldest spare interstitial to finish loading.
+                unclaimed.claim(listener);
+            } else if (pool.mInterstitials.size() < CAPACITY) {
+                PooledInterstitial pooled = pool.create();
+                pooled.claim(listener);
+                preloads.add(pooled);
+            } else {
+                isFull = true;
+            }
+            pool.preloadAhead(preloads);
+        }
+
+        // Call back and load outside the lock, the AppLovin SDK may call back synchronously.
+        for (Listener timedOutListener : timedOutListeners) {
+            timedOutListener.onAdFailedToLoad(
+                    "Timed out loading rewarded video for zone: " + pool.mZoneId);
+        }
+        if (readyInterstitial != null) {
+            log(DEBUG, "Preloaded rewarded video found for zone: " + pool.mZoneId);
+            listener.onAdLoaded(readyInterstitial.mInterstitial);
+        } else if (isFull) {
+            listener.onAdFailedToLoad("Cannot load more than " + CAPACITY
+                    + " rewarded videos at the same time for zone: " + pool.mZoneId);
+        }
+        for (PooledInterstitial pooled : preloads) {
+            pooled.preload();
+        }
+    }
+
+    private ZonePool getZonePool(String zoneId, AppLovinSdk sdk) {
+        String zone = zoneId != null ? zoneId : DEFAULT_ZONE;
+        String key = sdk.getSdkKey() + "/" + zone;
+        ZonePool pool = mZonePools.get(key);
+        if (pool == null) {
+            ZonePool newPool = new ZonePool(zone, sdk);
+            pool = mZonePools.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * The interstitials of one zone of an SDK that are loading or waiting to be taken, oldest
+     * first. Guarded by the pool itself.
+     */
+    private static final class ZonePool {
+
+        private final String mZoneId;
+        private final AppLovinSdk mSdk;
+        private final LinkedList<PooledInterstitial> mInterstitials = new LinkedList<>();
+
+        ZonePool(String zoneId, AppLovinSdk sdk) {
+            mZoneId = zoneId;
+            mSdk = sdk;
+        }
+
+        PooledInterstitial findUnclaimed() {
+            for (PooledInterstitial pooled : mInterstitials) {
+                if (pooled.mListener == null) {
+                    return pooled;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Discards the expired interstitials and the ones that timed out loading. The listeners
+         * that were waiting for the latter are added to {@code timedOutListeners} so that they are
+         * failed outside the lock.
+         */
+        void discardExpired(List<Listener> timedOutListeners) {
+            Iterator<PooledInterstitial> iterator = mInterstitials.iterator();
+            while (iterator.hasNext()) {
+                PooledInterstitial pooled = iterator.next();
+                if (pooled.isExpired()) {
+                    iterator.remove();
+                    sHandler.removeCallbacks(pooled.mTimeoutRunnable);
+                    if (!pooled.mIsLoaded && pooled.mListener != null) {
+                        timedOutListeners.add(pooled.mListener);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds interstitials to load until {@link #PRELOAD_AHEAD} are unclaimed or the pool is
+         * full. They are added to {@code preloads} so that they are loaded outside the lock.
+         */
+        void preloadAhead(List<PooledInterstitial> preloads) {
+            int unclaimed = 0;
+            for (PooledInterstitial pooled : mInterstitials) {
+                if (pooled.mListener == null) {
+                    unclaimed++;
+                }
+            }
+            while (unclaimed < PRELOAD_AHEAD && mInterstitials.size() < CAPACITY) {
+                preloads.add(create());
+                unclaimed++;
+            }
+        }
+
+        PooledInterstitial create() {
+            AppLovinIncentivizedInterstitial interstitial;
+            // If this is a default Zone, create the incentivized ad normally
+            if (TextUtils.isEmpty(mZoneId)) {
+                interstitial = AppLovinIncentivizedInterstitial.create(mSdk);
+            }
+            // Otherwise, use the Zones API
+            else {
+                interstitial = AppLovinIncentivizedInterstitial.create(mZoneId, mSdk);
+            }
+            PooledInterstitial pooled = new PooledInterstitial(this, interstitial);
+            mInterstitials.add(pooled);
+            return pooled;
+        }
+
+        void onLoaded(PooledInterstitial pooled) {
+            Listener listener;
+            synchronized (this) {
+                if (!mInterstitials.contains(pooled)) {
+                    return;
+                }
+                sHandler.removeCallbacks(pooled.mTimeoutRunnable);
+                pooled.mIsLoaded = true;
+                pooled.mLoadTimeMillis = System.currentTimeMillis();
+                listener = pooled.mListener;
+                if (listener != null) {
+                    mInterstitials.remove(pooled);
+                }
+            }
+            if (listener != null) {
+                listener.onAdLoaded(pooled.mInterstitial);
+            }
+        }
+
+        void onFailedToLoad(PooledInterstitial pooled, int code) {
+            Listener listener;
+            synchronized (this) {
+                if (!mInterstitials.remove(pooled)) {
+                    return;
+                }
+                sHandler.removeCallbacks(pooled.mTimeoutRunnable);
+                listener = pooled.mListener;
+            }
+            if (listener != null) {
+                listener.onAdFailedToLoad("Failed to load rewarded video with error: " + code);
+            }
+        }
+
+        /**
+         * Fails the request waiting for the given interstitial if it is still loading.
+         */
+        void onLoadTimedOut(PooledInterstitial pooled) {
+            Listener listener;
+            synchronized (this) {
+                if (pooled.mIsLoaded || !mInterstitials.remove(pooled)) {
+                    return;
+                }
+                listener = pooled.mListener;
+            }
+            if (listener != null) {
+                listener.onAdFailedToLoad(
+                        "Timed out loading rewarded video for zone: " + mZoneId);
+            }
+        }
+    }
+
+    private static final class PooledInterstitial implements AppLovinAdLoadListener {
+
+        private final ZonePool mPool;
+        private final AppLovinIncentivizedInterstitial mInterstitial;
+
+        /**
+         * The listener that claimed this interstitial, or {@code null} while it is spare.
+         */
+        private Listener mListener;
+        private final Runnable mTimeoutRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mPool.onLoadTimedOut(PooledInterstitial.this);
+            }
+        };
+
+        /**
+         * When the interstitial started loading, or was last claimed while loading.
+         */
+        private long mLoadStartTimeMillis;
+        private boolean mIsLoaded;
+        private long mLoadTimeMillis;
+
+        PooledInterstitial(ZonePool pool, AppLovinIncentivizedInterstitial interstitial) {
+            mPool = pool;
+            mInterstitial = interstitial;
+            mLoadStartTimeMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * Gives the interstitial, still loading, to the given listener, which is failed if the
+         * load does not end within {@link #LOAD_TIMEOUT_MILLIS} from now. Called with the pool
+         * lock held.
+         */
+        void claim(Listener listener) {
+            mListener = listener;
+            mLoadStartTimeMillis = System.currentTimeMillis();
+            sHandler.removeCallbacks(mTimeoutRunnable);
+            sHandler.postDelayed(mTimeoutRunnable, LOAD_TIMEOUT_MILLIS);
+        }
+
+        void preload() {
+            mInterstitial.preload(this);
+        }
+
+        /**
+         * @return whether the interstitial waited too long to be taken, or is still loading after
+         * the load timeout.
+         */
+        boolean isExpired() {
+            long now = System.currentTimeMillis();
+            return mIsLoaded
+                    ? now - mLoadTimeMillis > TIME_TO_LIVE_MILLIS
+                    : now - mLoadStartTimeMillis > LOAD_TIMEOUT_MILLIS;
+        }
+
+        @Override
+        public void adReceived(AppLovinAd ad) {
+            mPool.onLoaded(this);
+        }
+
+        @Override
+        public void failedToReceiveAd(int code) {
+            mPool.onFailedToLoad(this, code);
+        }
+    }
+}
@@ -36,7 +36,6 @@ import com.google.android.gms.ads.mediation.rtb.RtbAdapter;
 import com.google.android.gms.ads.mediation.rtb.RtbSignalData;
 import com.google.android.gms.ads.mediation.rtb.SignalCallbacks;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
 import java.util.List;
 
 public class AppLovinMediationAdapter extends RtbAdapter
@@ -44,13 +43,11 @@ public class AppLovinMediationAdapter extends RtbAdapter
 
     private static final String TAG = AppLovinMediationAdapter.class.getSimpleName();
     private static WeakReference<Context> applicationContextRef;
-    private static final String DEFAULT_ZONE = "";
     private static boolean isRtbAd = true;
 
     // Rewarded video globals.
-    public static final HashMap<String, AppLovinIncentivizedInterstitial> INCENTIVIZED_ADS =
-            new HashMap<>();
-    private static final Object INCENTIVIZED_ADS_LOCK = new Object();
+    private static final AppLovinIncentivizedAdPool INCENTIVIZED_AD_POOL =
+            AppLovinIncentivizedAdPool.getInstance();
 
     // Parent objects.
     private AppLovinSdk mSdk;
@@ -125,40 +122,43 @@ public class AppLovinMediationAdapter extends RtbAdapter
         }
 
         if (!isRtbAd) {
-            synchronized (INCENTIVIZED_ADS_LOCK) {
-                Bundle serverParameters = adConfiguration.getServerParameters();
-                mPlacement = AppLovinUtils.retrievePlacement(serverParameters);
-                mZoneId = AppLovinUtils.retrieveZoneId(serverParameters);
-                mSdk = AppLovinUtils.retrieveSdk(serverParameters, adConfiguration.getContext());
-                mNetworkExtras = adConfiguration.getMediationExtras();
-                mMediationAdLoadCallback = mediationAdLoadCallback;
-
-                String logMessage = String.format("Requesting rewarded video for zone '%s' " +
-                        "and placement '%s'.", mZoneId, mPlacement);
-                log(DEBUG, logMessage);
-
-                // Check if incentivized ad for zone already exists.
-                if (INCENTIVIZED_ADS.containsKey(mZoneId)) {
-                    mIncentivizedInterstitial = INCENTIVIZED_ADS.get(mZoneId);
-                    mMediationAdLoadCallback.onFailure("Failed");
-                    log(ERROR, "Cannot load multiple ads with the same Zone ID. " +
-                            "Display one ad before attempting to load another.");
-                } else {
-                    // If this is a default Zone, create the incentivized ad normally
-                    if (DEFAULT_ZONE.equals(mZoneId)) {
-                        mIncentivizedInterstitial = AppLovinIncentivizedInterstitial.create(mSdk);
-                    }
-                    // Otherwise, use the Zones API
-                    else {
-                        mIncentivizedInterstitial =
-                                AppLovinIncentivizedInterstitial.create(mZoneId, mSdk);
-                    }
-                    INCENTIVIZED_ADS.put(mZoneId, mIncentivizedInterstitial);
-                }
-            }
+            Bundle serverParameters = adConfiguration.getServerParameters();
+            mPlacement = AppLovinUtils.retrievePlacement(serverParameters);
+            mZoneId = AppLovinUtils.retrieveZoneId(serverParameters);
+            mSdk = AppLovinUtils.retrieveSdk(serverParameters, adConfiguration.getContext());
+            mNetworkExtras = adConfiguration.getMediationExtras();
+            mMediationAdLoadCallback = mediationAdLoadCallback;
 
-            mIncentivizedInterstitial.preload(this);
+            String logMessage = String.format("Requesting rewarded video for zone '%s' " +
+                    "and placement '%s'.", mZoneId, mPlacement);
+            log(DEBUG, logMessage);
+
+            // Take a preloaded incentivized ad for the zone, or wait for one to load.
+            INCENTIVIZED_AD_POOL.acquire(mZoneId, mSdk, new AppLovinIncentivizedAdPool.Listener() {
+                @Override
+                public void onAdLoaded(AppLovinIncentivizedInterstitial incentivizedInterstitial) {
+                    mIncentivizedInterstitial = incentivizedInterstitial;
+                    log(DEBUG, "Rewarded video did load for zone: " + mZoneId);
+                    AppLovinSdkUtils.runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            mRewardedAdCallback = mMediationAdLoadCallback
+                                    .onSuccess(AppLovinMediationAdapter.this);
+                        }
+                    });
+                }
 
+                @Override
+                public void onAdFailedToLoad(final String errorMessage) {
+                    log(ERROR, errorMessage);
+                    AppLovinSdkUtils.runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            mMediationAdLoadCallback.onFailure(errorMessage);
+                        }
+                    });
+                }
+            });
         } else {
             mMediationAdLoadCallback = mediationAdLoadCallback;
             mNetworkExtras = adConfiguration.getMediationExtras();
@@ -265,9 +265,6 @@ public class AppLovinMediationAdapter extends RtbAdapter
     public void failedToReceiveAd(final int code) {
         log(ERROR, "Rewarded video failed to load with error: " + code);
 
-        if (!isRtbAd) {
-            INCENTIVIZED_ADS.remove(mZoneId);
-        }
         AppLovinSdkUtils.runOnUiThread(new Runnable() {
             @Override
             public void run() {
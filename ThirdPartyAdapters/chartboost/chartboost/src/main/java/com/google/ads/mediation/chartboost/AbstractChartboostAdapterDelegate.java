@@ -28,4 +28,10 @@ public abstract class AbstractChartboostAdapterDelegate extends ChartboostDelega
      * @return Chartboost params containing ad request parameters.
      */
     public abstract ChartboostParams getChartboostParams();
+
+    /**
+     * This method is called when the Chartboost SDK did not initialize within the initialization
+     * timeout set on {@link ChartboostSingleton}.
+     */
+    public abstract void didFailToInitialize();
 }
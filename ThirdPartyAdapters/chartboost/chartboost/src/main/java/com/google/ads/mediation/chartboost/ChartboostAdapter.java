@@ -74,6 +74,17 @@ public class ChartboostAdapter extends ChartboostMediationAdapter
                     ChartboostSingleton.loadInterstitialAd(mChartboostInterstitialDelegate);
                 }
 
+                @Override
+                public void didFailToInitialize() {
+                    Log.w(TAG, "Failed to load ad from Chartboost: "
+                            + "Chartboost SDK did not initialize in time.");
+                    mIsLoading = false;
+                    if (mMediationInterstitialListener != null) {
+                        mMediationInterstitialListener.onAdFailedToLoad(ChartboostAdapter.this,
+                                AdRequest.ERROR_CODE_INTERNAL_ERROR);
+                    }
+                }
+
                 @Override
                 public void didCacheInterstitial(String location) {
                     super.didCacheInterstitial(location);
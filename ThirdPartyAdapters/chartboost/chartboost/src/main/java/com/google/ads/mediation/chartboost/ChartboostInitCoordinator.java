@@ -0,0 +1,116 @@
+package com.google.ads.mediation.chartboost;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ChartboostInitCoordinator} keeps track of the
+ * {@link AbstractChartboostAdapterDelegate}s waiting for the Chartboost SDK to initialize. All the
+ * waiting delegates are notified once the SDK initializes, or are handed to a {@link Listener}
+ * together if the SDK does not initialize within the deadline.
+ */
+final class ChartboostInitCoordinator {
+
+    /**
+     * Listener notified when the Chartboost SDK did not initialize within the deadline.
+     */
+    interface Listener {
+
+        /**
+         * Called on the main thread with the delegates that were waiting when the deadline
+         * passed. They are no longer waiting and will not be notified if the SDK initializes
+         * later.
+         *
+         * @param delegates the delegates that were waiting, in the order they arrived.
+         */
+        void onInitializationTimedOut(List<AbstractChartboostAdapterDelegate> delegates);
+    }
+
+    /**
+     * Default time to wait for the Chartboost SDK to initialize, in milliseconds.
+     */
+    static final long DEFAULT_INITIALIZATION_TIMEOUT_MILLIS = 10000;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Listener mListener;
+
+    private final Runnable mTimeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onTimeout();
+        }
+    };
+
+    /**
+     * Delegates waiting for the Chartboost SDK to initialize, in the order they arrived.
+     */
+    private final List<AbstractChartboostAdapterDelegate> mPendingDelegates = new ArrayList<>();
+
+    private long mTimeoutMillis = DEFAULT_INITIALIZATION_TIMEOUT_MILLIS;
+
+    private boolean mIsTimeoutScheduled;
+
+    ChartboostInitCoordinator(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Sets the time to wait for the Chartboost SDK to initialize. Applies to the delegates that
+     * start waiting after this call.
+     *
+     * @param timeoutMillis the timeout in milliseconds.
+     */
+    synchronized void setTimeoutMillis(long timeoutMillis) {
+        mTimeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Adds a delegate to be notified once the Chartboost SDK initializes. The deadline starts when
+     * the first delegate of a batch starts waiting.
+     *
+     * @param delegate the delegate waiting for the Chartboost SDK to initialize.
+     */
+    synchronized void enqueue(AbstractChartboostAdapterDelegate delegate) {
+        if (mPendingDelegates.contains(delegate)) {
+            return;
+        }
+        mPendingDelegates.add(delegate);
+
+        if (!mIsTimeoutScheduled) {
+            mIsTimeoutScheduled = true;
+            mHandler.postDelayed(mTimeoutRunnable, mTimeoutMillis);
+        }
+    }
+
+    /**
+     * Notifies every waiting delegate that the Chartboost SDK has initialized.
+     */
+    void onInitialized() {
+        for (AbstractChartboostAdapterDelegate delegate : drain()) {
+            delegate.didInitialize();
+        }
+    }
+
+    private void onTimeout() {
+        List<AbstractChartboostAdapterDelegate> delegates = drain();
+        if (!delegates.isEmpty()) {
+            Log.w(ChartboostMediationAdapter.TAG, "Chartboost SDK did not initialize in time. "
+                    + "Failing " + delegates.size() + " pending request(s).");
+        }
+        mListener.onInitializationTimedOut(delegates);
+    }
+
+    private synchronized List<AbstractChartboostAdapterDelegate> drain() {
+        mHandler.removeCallbacks(mTimeoutRunnable);
+        mIsTimeoutScheduled = false;
+
+        List<AbstractChartboostAdapterDelegate> delegates = new ArrayList<>(mPendingDelegates);
+        mPendingDelegates.clear();
+        return delegates;
+    }
+}
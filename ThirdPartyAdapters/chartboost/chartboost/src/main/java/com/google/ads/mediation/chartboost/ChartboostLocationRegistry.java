@@ -0,0 +1,158 @@
+package com.google.ads.mediation.chartboost;
+
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link ChartboostLocationRegistry} keeps weak references to the
+ * {@link AbstractChartboostAdapterDelegate}s waiting for an ad, indexed by their Chartboost
+ * location. Several delegates can wait for the same location, and are returned in the order they
+ * were added. References to delegates that have been garbage collected are removed automatically.
+ */
+final class ChartboostLocationRegistry {
+
+    /**
+     * Pending delegates keyed by their Chartboost location, in FIFO order.
+     */
+    private final ConcurrentHashMap<String, CopyOnWriteArrayList<DelegateReference>> mDelegates =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Queue to which the garbage collector adds the cleared {@link DelegateReference}s.
+     */
+    private final ReferenceQueue<AbstractChartboostAdapterDelegate> mReferenceQueue =
+            new ReferenceQueue<>();
+
+    /**
+     * Adds the given delegate to the end of the list of delegates waiting for the location. Adding
+     * a delegate that is already waiting for the location has no effect.
+     *
+     * @param location the Chartboost location.
+     * @param delegate the delegate waiting for an ad.
+     */
+    void add(String location, AbstractChartboostAdapterDelegate delegate) {
+        expungeStaleReferences();
+        if (TextUtils.isEmpty(location) || delegate == null) {
+            return;
+        }
+
+        CopyOnWriteArrayList<DelegateReference> references = mDelegates.get(location);
+        if (references == null) {
+            CopyOnWriteArrayList<DelegateReference> newReferences = new CopyOnWriteArrayList<>();
+            references = mDelegates.putIfAbsent(location, newReferences);
+            if (references == null) {
+                references = newReferences;
+            }
+        }
+
+        synchronized (references) {
+            for (DelegateReference reference : references) {
+                if (reference.get() == delegate) {
+                    return;
+                }
+            }
+            references.add(new DelegateReference(location, delegate, mReferenceQueue));
+        }
+    }
+
+    /**
+     * Removes the given delegate from the list of delegates waiting for the location.
+     *
+     * @param location the Chartboost location.
+     * @param delegate the delegate to remove.
+     */
+    void remove(String location, AbstractChartboostAdapterDelegate delegate) {
+        expungeStaleReferences();
+        if (TextUtils.isEmpty(location)) {
+            return;
+        }
+
+        CopyOnWriteArrayList<DelegateReference> references = mDelegates.get(location);
+        if (references == null) {
+            return;
+        }
+
+        synchronized (references) {
+            for (DelegateReference reference : references) {
+                if (reference.get() == delegate) {
+                    references.remove(reference);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes and returns every live delegate waiting for the location.
+     *
+     * @param location the Chartboost location.
+     * @return the delegates that were removed, in the order they were added.
+     */
+    @NonNull
+    List<AbstractChartboostAdapterDelegate> removeAll(String location) {
+        expungeStaleReferences();
+        List<AbstractChartboostAdapterDelegate> delegates = new ArrayList<>();
+        if (TextUtils.isEmpty(location)) {
+            return delegates;
+        }
+
+        CopyOnWriteArrayList<DelegateReference> references = mDelegates.get(location);
+        if (references != null) {
+            synchronized (references) {
+                collect(references, delegates);
+                references.clear();
+            }
+        }
+        return delegates;
+    }
+
+    private static void collect(List<DelegateReference> references,
+                                List<AbstractChartboostAdapterDelegate> delegates) {
+        for (DelegateReference reference : references) {
+            AbstractChartboostAdapterDelegate delegate = reference.get();
+            if (delegate != null) {
+                delegates.add(delegate);
+            }
+        }
+    }
+
+    /**
+     * Removes the references cleared by the garbage collector since the last call.
+     */
+    private void expungeStaleReferences() {
+        Reference<? extends AbstractChartboostAdapterDelegate> reference;
+        while ((reference = mReferenceQueue.poll()) != null) {
+            DelegateReference delegateReference = (DelegateReference) reference;
+            CopyOnWriteArrayList<DelegateReference> references =
+                    mDelegates.get(delegateReference.mLocation);
+            if (references != null) {
+                references.remove(delegateReference);
+            }
+        }
+    }
+
+    /**
+     * A weak reference to a delegate that remembers the location it was added for, so that it can
+     * be removed once the delegate is collected.
+     */
+    private static final class DelegateReference
+            extends WeakReference<AbstractChartboostAdapterDelegate> {
+
+        private final String mLocation;
+
+        DelegateReference(String location,
+                          AbstractChartboostAdapterDelegate delegate,
+                          ReferenceQueue<AbstractChartboostAdapterDelegate> queue) {
+            super(delegate, queue);
+            mLocation = location;
+        }
+    }
+}
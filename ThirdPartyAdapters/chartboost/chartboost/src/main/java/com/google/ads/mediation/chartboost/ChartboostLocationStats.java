@@ -0,0 +1,62 @@
+package com.google.ads.mediation.chartboost;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link ChartboostLocationStats} class holds the pre-caching statistics of a Chartboost
+ * location for one ad format.
+ */
+public final class ChartboostLocationStats {
+
+    private final AtomicInteger mHits = new AtomicInteger();
+    private final AtomicInteger mMisses = new AtomicInteger();
+    private final AtomicInteger mPrecacheSuccesses = new AtomicInteger();
+    private final AtomicInteger mPrecacheFailures = new AtomicInteger();
+
+    ChartboostLocationStats() {
+    }
+
+    void recordHit() {
+        mHits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        mMisses.incrementAndGet();
+    }
+
+    void recordPrecacheSuccess() {
+        mPrecacheSuccesses.incrementAndGet();
+    }
+
+    void recordPrecacheFailure() {
+        mPrecacheFailures.incrementAndGet();
+    }
+
+    /**
+     * @return the number of ad requests for which an ad was already cached.
+     */
+    public int getHits() {
+        return mHits.get();
+    }
+
+    /**
+     * @return the number of ad requests that had to wait for an ad to be cached.
+     */
+    public int getMisses() {
+        return mMisses.get();
+    }
+
+    /**
+     * @return the number of pre-cache requests that cached an ad.
+     */
+    public int getPrecacheSuccesses() {
+        return mPrecacheSuccesses.get();
+    }
+
+    /**
+     * @return the number of pre-cache requests that failed to cache an ad.
+     */
+    public int getPrecacheFailures() {
+        return mPrecacheFailures.get();
+    }
+}
@@ -6,8 +6,10 @@ import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
 
+import com.chartboost.sdk.CBLocation;
 import com.chartboost.sdk.Chartboost;
 import com.chartboost.sdk.Model.CBError;
+import com.google.android.gms.ads.AdFormat;
 import com.google.android.gms.ads.mediation.Adapter;
 import com.google.android.gms.ads.mediation.InitializationCompleteCallback;
 import com.google.android.gms.ads.mediation.MediationAdLoadCallback;
@@ -18,6 +20,7 @@ import com.google.android.gms.ads.mediation.MediationRewardedAdConfiguration;
 import com.google.android.gms.ads.mediation.VersionInfo;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 public class ChartboostMediationAdapter extends Adapter implements MediationRewardedAd {
@@ -73,6 +76,8 @@ public class ChartboostMediationAdapter extends Adapter implements MediationRewa
         }
 
         HashMap<String, Bundle> chartboostConfigs = new HashMap<>();
+        HashSet<String> interstitialLocations = new HashSet<>();
+        HashSet<String> rewardedLocations = new HashSet<>();
         for (MediationConfiguration configuration : mediationConfigurations) {
             Bundle params = configuration.getServerParameters();
             String serverAppID = params.getString(ChartboostAdapterUtils.KEY_APP_ID);
@@ -80,6 +85,17 @@ public class ChartboostMediationAdapter extends Adapter implements MediationRewa
             if (!TextUtils.isEmpty(serverAppID)) {
                 chartboostConfigs.put(serverAppID, params);
             }
+
+            // Collect the locations to pre-cache once the Chartboost SDK is initialized. Ad
+            // requests without a location use the default one, so pre-cache it for them.
+            String location = params.getString(ChartboostAdapterUtils.KEY_AD_LOCATION);
+            location = ChartboostAdapterUtils.isValidParam(location)
+                    ? location.trim() : CBLocation.LOCATION_DEFAULT;
+            if (configuration.getFormat() == AdFormat.INTERSTITIAL) {
+                interstitialLocations.add(location);
+            } else if (configuration.getFormat() == AdFormat.REWARDED) {
+                rewardedLocations.add(location);
+            }
         }
 
         String appID;
@@ -111,6 +127,7 @@ public class ChartboostMediationAdapter extends Adapter implements MediationRewa
             return;
         }
 
+        ChartboostSingleton.precacheLocations(interstitialLocations, rewardedLocations);
         ChartboostSingleton.startChartboostRewardedVideo(
                 context, mChartboostRewardedVideoDelegate);
     }
@@ -177,8 +194,11 @@ public class ChartboostMediationAdapter extends Adapter implements MediationRewa
                 @Override
                 public void didInitialize() {
                     super.didInitialize();
+                    // Report the initialization result only once, a later ad request on this
+                    // adapter must not contradict an earlier failure.
                     if (mInitializationCallback != null) {
                         mInitializationCallback.onInitializationSucceeded();
+                        mInitializationCallback = null;
                     }
 
                     // If 'mAdLoadCallback' is not null, then it means an Ad request is pending
@@ -189,6 +209,22 @@ public class ChartboostMediationAdapter extends Adapter implements MediationRewa
                     }
                 }
 
+                @Override
+                public void didFailToInitialize() {
+                    String logMessage = "Chartboost SDK did not initialize in time.";
+                    Log.w(TAG, logMessage);
+                    if (mInitializationCallback != null) {
+                        mInitializationCallback.onInitializationFailed(logMessage);
+                        mInitializationCallback = null;
+                    }
+
+                    if (mAdLoadCallback != null) {
+                        mIsLoading = false;
+                        mAdLoadCallback.onFailure("Failed to load ad from Chartboost: "
+                                + logMessage);
+                    }
+                }
+
                 @Override
                 public void didCacheRewardedVideo(String location) {
                     super.didCacheRewardedVideo(location);
@@ -0,0 +1,252 @@
+package com.google.ads.mediation.chartboost;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.chartboost.sdk.Chartboost;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ChartboostPrecacher} caches the interstitial and rewarded video ads of the Chartboost
+ * locations found when the adapter is initialized, so that the first ad request for each location
+ * does not have to wait for an ad to be cached. At most {@link #MAX_CONCURRENT_PRECACHES}
+ * locations are cached at the same time, and a location that gets no cache result within
+ * {@link #PRECACHE_TIMEOUT_MILLIS} is counted as failed so that it does not hold its slot forever.
+ */
+final class ChartboostPrecacher {
+
+    /**
+     * Maximum number of pre-cache requests sent to Chartboost at the same time.
+     */
+    static final int MAX_CONCURRENT_PRECACHES = 2;
+
+    /**
+     * Time to wait for the result of a pre-cache request, in milliseconds.
+     */
+    static final long PRECACHE_TIMEOUT_MILLIS = 30000;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Interstitial and rewarded video statistics, keyed by Chartboost location.
+     */
+    private final ConcurrentHashMap<String, ChartboostLocationStats> mInterstitialStats =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ChartboostLocationStats> mRewardedStats =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Locations waiting to be pre-cached, in the order they were found.
+     */
+    private final LinkedList<String> mPendingInterstitials = new LinkedList<>();
+    private final LinkedList<String> mPendingRewarded = new LinkedList<>();
+
+    /**
+     * Locations currently being pre-cached, mapped to the runnable that fails them on timeout.
+     */
+    private final Map<String, Runnable> mInFlightInterstitials = new HashMap<>();
+    private final Map<String, Runnable> mInFlightRewarded = new HashMap<>();
+
+    /**
+     * Whether the Chartboost SDK is ready to cache ads.
+     */
+    private boolean mIsStarted;
+
+    /**
+     * Adds the given locations to be pre-cached once the Chartboost SDK is initialized.
+     *
+     * @param interstitialLocations locations to pre-cache interstitial ads for.
+     * @param rewardedLocations     locations to pre-cache rewarded video ads for.
+     */
+    void enqueue(Set<String> interstitialLocations, Set<String> rewardedLocations) {
+        synchronized (this) {
+            for (String location : interstitialLocations) {
+                if (!TextUtils.isEmpty(location) && !mPendingInterstitials.contains(location)
+                        && !mInFlightInterstitials.containsKey(location)) {
+                    mPendingInterstitials.add(location);
+                }
+            }
+            for (String location : rewardedLocations) {
+                if (!TextUtils.isEmpty(location) && !mPendingRewarded.contains(location)
+                        && !mInFlightRewarded.containsKey(location)) {
+                    mPendingRewarded.add(location);
+                }
+            }
+        }
+        pump();
+    }
+
+    /**
+     * Starts pre-caching the pending locations. Called once the Chartboost SDK is initialized.
+     */
+    void start() {
+        synchronized (this) {
+            mIsStarted = true;
+        }
+        pump();
+    }
+
+    /**
+     * Records the result of an interstitial cache request and pre-caches the next location.
+     *
+     * @param location the Chartboost location.
+     * @param success  whether an ad was cached.
+     */
+    void onInterstitialCacheResult(String location, boolean success) {
+        synchronized (this) {
+            Runnable timeoutRunnable = mInFlightInterstitials.remove(location);
+            if (timeoutRunnable == null) {
+                return;
+            }
+            mHandler.removeCallbacks(timeoutRunnable);
+        }
+        recordPrecacheResult(getStats(mInterstitialStats, location), success);
+        pump();
+    }
+
+    /**
+     * Records the result of a rewarded video cache request and pre-caches the next location.
+     *
+     * @param location the Chartboost location.
+     * @param success  whether an ad was cached.
+     */
+    void onRewardedCacheResult(String location, boolean success) {
+        synchronized (this) {
+            Runnable timeoutRunnable = mInFlightRewarded.remove(location);
+            if (timeoutRunnable == null) {
+                return;
+            }
+            mHandler.removeCallbacks(timeoutRunnable);
+        }
+        recordPrecacheResult(getStats(mRewardedStats, location), success);
+        pump();
+    }
+
+    /**
+     * Records whether an interstitial ad request found an ad already cached.
+     *
+     * @param location the Chartboost location.
+     * @param hit      {@code true} if an ad was already cached.
+     */
+    void recordInterstitialRequest(String location, boolean hit) {
+        recordRequest(getStats(mInterstitialStats, location), hit);
+    }
+
+    /**
+     * Records whether a rewarded video ad request found an ad already cached.
+     *
+     * @param location the Chartboost location.
+     * @param hit      {@code true} if an ad was already cached.
+     */
+    void recordRewardedRequest(String location, boolean hit) {
+        recordRequest(getStats(mRewardedStats, location), hit);
+    }
+
+    ChartboostLocationStats getInterstitialStats(String location) {
+        return mInterstitialStats.get(location);
+    }
+
+    ChartboostLocationStats getRewardedStats(String location) {
+        return mRewardedStats.get(location);
+    }
+
+    /**
+     * Sends cache requests to Chartboost for pending locations, as long as the concurrency budget
+     * allows it.
+     */
+    private void pump() {
+        List<String> interstitials = new ArrayList<>();
+        List<String> rewarded = new ArrayList<>();
+        synchronized (this) {
+            if (!mIsStarted) {
+                return;
+            }
+
+            while (mInFlightInterstitials.size() + mInFlightRewarded.size()
+                    < MAX_CONCURRENT_PRECACHES) {
+                if (!mPendingInterstitials.isEmpty()) {
+                    final String location = mPendingInterstitials.removeFirst();
+                    Runnable timeoutRunnable = new Runnable() {
+                        @Override
+                        public void run() {
+                            Log.w(ChartboostMediationAdapter.TAG, "Timed out pre-caching an "
+                                    + "interstitial ad for location: " + location);
+                            onInterstitialCacheResult(location, false);
+                        }
+                    };
+                    mInFlightInterstitials.put(location, timeoutRunnable);
+                    mHandler.postDelayed(timeoutRunnable, PRECACHE_TIMEOUT_MILLIS);
+                    interstitials.add(location);
+                } else if (!mPendingRewarded.isEmpty()) {
+                    final String location = mPendingRewarded.removeFirst();
+                    Runnable timeoutRunnable = new Runnable() {
+                        @Override
+                        public void run() {
+                            Log.w(ChartboostMediationAdapter.TAG, "Timed out pre-caching a "
+                                    + "rewarded video ad for location: " + location);
+                            onRewardedCacheResult(location, false);
+                        }
+                    };
+                    mInFlightRewarded.put(location, timeoutRunnable);
+                    mHandler.postDelayed(timeoutRunnable, PRECACHE_TIMEOUT_MILLIS);
+                    rewarded.add(location);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        for (String location : interstitials) {
+            if (Chartboost.hasInterstitial(location)) {
+                onInterstitialCacheResult(location, true);
+            } else {
+                Chartboost.cacheInterstitial(location);
+            }
+        }
+        for (String location : rewarded) {
+            if (Chartboost.hasRewardedVideo(location)) {
+                onRewardedCacheResult(location, true);
+            } else {
+                Chartboost.cacheRewardedVideo(location);
+            }
+        }
+    }
+
+    private static void recordPrecacheResult(ChartboostLocationStats stats, boolean success) {
+        if (success) {
+            stats.recordPrecacheSuccess();
+        } else {
+            stats.recordPrecacheFailure();
+        }
+    }
+
+    private static void recordRequest(ChartboostLocationStats stats, boolean hit) {
+        if (hit) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+    }
+
+    private static ChartboostLocationStats getStats(
+            ConcurrentHashMap<String, ChartboostLocationStats> statsMap, String location) {
+        ChartboostLocationStats stats = statsMap.get(location);
+        if (stats == null) {
+            ChartboostLocationStats newStats = new ChartboostLocationStats();
+            stats = statsMap.putIfAbsent(location, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+}
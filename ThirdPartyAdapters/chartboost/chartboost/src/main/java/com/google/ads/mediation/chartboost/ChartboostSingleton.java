@@ -25,7 +25,8 @@ import com.chartboost.sdk.Libraries.CBLogging;
 import com.chartboost.sdk.Model.CBError;
 
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
  * The {@link ChartboostSingleton} class is used to load Chartboost ads and manage multiple
@@ -34,13 +35,22 @@ import java.util.HashMap;
 public final class ChartboostSingleton {
 
     /**
-     * Synchronized HashMaps of {@link AbstractChartboostAdapterDelegate} weak references
-     * keyed by their Chartboost location
+     * Registries of {@link AbstractChartboostAdapterDelegate} weak references waiting for an ad,
+     * keyed by their Chartboost location.
      */
-    private static HashMap<String, WeakReference<AbstractChartboostAdapterDelegate>>
-            mInterstitialDelegates = new HashMap<>();
-    private static HashMap<String, WeakReference<AbstractChartboostAdapterDelegate>>
-            mRewardedDelegates = new HashMap<>();
+    private static final ChartboostLocationRegistry mInterstitialDelegates =
+            new ChartboostLocationRegistry();
+    private static final ChartboostLocationRegistry mRewardedDelegates =
+            new ChartboostLocationRegistry();
+
+    /**
+     * Weak references to the {@link AbstractChartboostAdapterDelegate}s of the adapters that are
+     * currently showing an interstitial and a rewarded video ad.
+     */
+    private static volatile WeakReference<AbstractChartboostAdapterDelegate>
+            mShowingInterstitialDelegate;
+    private static volatile WeakReference<AbstractChartboostAdapterDelegate>
+            mShowingRewardedDelegate;
 
     /**
      * Flag to keep track of whether or not {@link Chartboost} has initialized.
@@ -52,6 +62,34 @@ public final class ChartboostSingleton {
      */
     private static boolean mIsChartboostInitializing;
 
+    /**
+     * Keeps track of the adapter delegates waiting for {@link Chartboost} to initialize.
+     */
+    private static final ChartboostInitCoordinator mInitCoordinator =
+            new ChartboostInitCoordinator(new ChartboostInitCoordinator.Listener() {
+                @Override
+                public void onInitializationTimedOut(
+                        List<AbstractChartboostAdapterDelegate> delegates) {
+                    // Let a later ad request start initializing Chartboost again, instead of
+                    // waiting for an initialization that may never complete.
+                    mIsChartboostInitializing = false;
+
+                    for (AbstractChartboostAdapterDelegate delegate : delegates) {
+                        // The failed delegates must not receive the cache events of a later
+                        // request for the same location.
+                        String location = delegate.getChartboostParams().getLocation();
+                        mInterstitialDelegates.remove(location, delegate);
+                        mRewardedDelegates.remove(location, delegate);
+                        delegate.didFailToInitialize();
+                    }
+                }
+            });
+
+    /**
+     * Pre-caches the locations found when the adapter is initialized and keeps their statistics.
+     */
+    private static final ChartboostPrecacher mPrecacher = new ChartboostPrecacher();
+
     /**
      * The only instance of
      * {@link com.google.ads.mediation.chartboost.ChartboostSingleton.ChartboostSingletonDelegate}.
@@ -73,59 +111,66 @@ public final class ChartboostSingleton {
     }
 
     /**
-     * Adds the given weak reference of {@link AbstractChartboostAdapterDelegate} to the map of
-     * Chartboost locations.
+     * Gets the {@link AbstractChartboostAdapterDelegate} referenced by the given weak reference.
      *
-     * @param delegate the delegate that needs to be added to {@link #mInterstitialDelegates}.
+     * @param reference a weak reference to a delegate, possibly {@code null}.
+     * @return the delegate, or {@code null} if there is none.
      */
-    private static void addInterstitialDelegate(String location,
-                                                AbstractChartboostAdapterDelegate delegate) {
-        if (!TextUtils.isEmpty(location) && delegate != null) {
-            mInterstitialDelegates.put(location, new WeakReference<>(delegate));
-        }
+    private static AbstractChartboostAdapterDelegate getDelegate(
+            WeakReference<AbstractChartboostAdapterDelegate> reference) {
+        return reference != null ? reference.get() : null;
     }
 
     /**
-     * Adds the given weak reference of {@link AbstractChartboostAdapterDelegate} to the map of
-     * Chartboost locations.
+     * Sets the time to wait for the Chartboost SDK to initialize before failing the pending ad
+     * requests. Defaults to
+     * {@value ChartboostInitCoordinator#DEFAULT_INITIALIZATION_TIMEOUT_MILLIS} milliseconds.
      *
-     * @param delegate the delegate that needs to be added to {@link #mRewardedDelegates}.
+     * @param timeoutMillis the timeout in milliseconds.
      */
-    private static void addRewardedDelegate(String location,
-                                            AbstractChartboostAdapterDelegate delegate) {
-        if (!TextUtils.isEmpty(location) && delegate != null) {
-            mRewardedDelegates.put(location, new WeakReference<>(delegate));
+    public static void setInitializationTimeout(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            Log.w(ChartboostMediationAdapter.TAG,
+                    "Invalid initialization timeout: " + timeoutMillis + ". Ignoring it.");
+            return;
         }
+        mInitCoordinator.setTimeoutMillis(timeoutMillis);
     }
 
     /**
-     * Gets the weak reference of the {@link AbstractChartboostAdapterDelegate} linked to a given
-     * Chartboost location
+     * Returns the pre-caching statistics of interstitial ads for the given location.
      *
-     * @param location the Chartboost location
-     * @return the weak reference of the Interstitial delegate for the location
+     * @param location the Chartboost location.
+     * @return the location statistics, or {@code null} if no interstitial ad has been requested or
+     * pre-cached for the location.
      */
-    private static WeakReference<AbstractChartboostAdapterDelegate> getInterstitialDelegate(
-            String location) {
-        if (!TextUtils.isEmpty(location) && mInterstitialDelegates.containsKey(location)) {
-            return mInterstitialDelegates.get(location);
-        }
-        return null;
+    public static ChartboostLocationStats getInterstitialLocationStats(String location) {
+        return mPrecacher.getInterstitialStats(location);
     }
 
     /**
-     * Gets the weak reference of the {@link AbstractChartboostAdapterDelegate} linked to a given
-     * Chartboost location
+     * Returns the pre-caching statistics of rewarded video ads for the given location.
      *
-     * @param location the Chartboost location
-     * @return the weak reference of the Rewarded delegate for the location
+     * @param location the Chartboost location.
+     * @return the location statistics, or {@code null} if no rewarded video ad has been requested
+     * or pre-cached for the location.
      */
-    private static WeakReference<AbstractChartboostAdapterDelegate> getRewardedDelegate(
-            String location) {
-        if (!TextUtils.isEmpty(location) && mRewardedDelegates.containsKey(location)) {
-            return mRewardedDelegates.get(location);
+    public static ChartboostLocationStats getRewardedLocationStats(String location) {
+        return mPrecacher.getRewardedStats(location);
+    }
+
+    /**
+     * Requests the given locations to be cached as soon as {@link Chartboost} is initialized.
+     *
+     * @param interstitialLocations locations to pre-cache interstitial ads for.
+     * @param rewardedLocations     locations to pre-cache rewarded video ads for.
+     */
+    static void precacheLocations(Set<String> interstitialLocations,
+                                  Set<String> rewardedLocations) {
+        mPrecacher.enqueue(interstitialLocations, rewardedLocations);
+        if (mIsChartboostInitialized) {
+            mPrecacher.start();
         }
-        return null;
     }
 
     /**
@@ -139,21 +184,9 @@ public final class ChartboostSingleton {
             Context context, AbstractChartboostAdapterDelegate adapterDelegate) {
         String location = adapterDelegate.getChartboostParams().getLocation();
 
-        // Checks if an ad has already been sent for caching for the requested location, and fail
-        // the ad request if it is.
-        WeakReference<AbstractChartboostAdapterDelegate> delegate =
-                getInterstitialDelegate(location);
-        if (delegate != null && delegate.get() != null) {
-            Log.w(ChartboostMediationAdapter.TAG,
-                    "An ad has already been requested for the location: " + location);
-            adapterDelegate.didFailToLoadInterstitial(location,
-                    CBError.CBImpressionError.NO_AD_FOUND);
-            return;
-        }
-
-        // Add this adapter delegate to mAdapterDelegates so that the events from
-        // Chartboost SDK can be forwarded.
-        addInterstitialDelegate(location, adapterDelegate);
+        // Add this adapter delegate to mInterstitialDelegates so that the events from Chartboost
+        // SDK can be forwarded. Several adapters can wait for the same location.
+        mInterstitialDelegates.add(location, adapterDelegate);
         startChartboost((Activity) context, adapterDelegate.getChartboostParams(), adapterDelegate);
     }
 
@@ -168,21 +201,9 @@ public final class ChartboostSingleton {
             Context context, AbstractChartboostAdapterDelegate adapterDelegate) {
         String location = adapterDelegate.getChartboostParams().getLocation();
 
-        // Checks if an ad has already been sent for caching for the requested location, and fail
-        // the ad request if it is.
-        WeakReference<AbstractChartboostAdapterDelegate> delegate =
-                getRewardedDelegate(location);
-        if (delegate != null && delegate.get() != null) {
-            Log.w(ChartboostMediationAdapter.TAG,
-                    "An ad has already been requested for the location: " + location);
-            adapterDelegate.didFailToLoadRewardedVideo(location,
-                    CBError.CBImpressionError.NO_AD_FOUND);
-            return;
-        }
-
-        // Add this adapter delegate to mAdapterDelegates so that the events from
-        // Chartboost SDK can be forwarded.
-        addRewardedDelegate(location, adapterDelegate);
+        // Add this adapter delegate to mRewardedDelegates so that the events from Chartboost SDK
+        // can be forwarded. Several adapters can wait for the same location.
+        mRewardedDelegates.add(location, adapterDelegate);
         startChartboost((Activity) context, adapterDelegate.getChartboostParams(), adapterDelegate);
     }
 
@@ -197,6 +218,14 @@ public final class ChartboostSingleton {
      */
     private static void startChartboost(Activity activity, ChartboostParams params,
                                         AbstractChartboostAdapterDelegate adapterDelegate) {
+        if (mIsChartboostInitialized) {
+            adapterDelegate.didInitialize();
+            return;
+        }
+
+        // Queue the adapter delegate until Chartboost initializes, including when another adapter
+        // already started initializing it.
+        mInitCoordinator.enqueue(adapterDelegate);
         if (mIsChartboostInitializing) {
             return;
         }
@@ -206,27 +235,23 @@ public final class ChartboostSingleton {
             Chartboost.setFramework(params.getFramework(), params.getFrameworkVersion());
         }
 
-        if (!mIsChartboostInitialized) {
-            mIsChartboostInitializing = true;
-            Chartboost.startWithAppId(activity, params.getAppId(), params.getAppSignature());
-
-            Chartboost.setMediation(Chartboost.CBMediation.CBMediationAdMob,
-                    BuildConfig.VERSION_NAME);
-            Chartboost.setLoggingLevel(CBLogging.Level.INTEGRATION);
-            Chartboost.setDelegate(getInstance());
-            Chartboost.setAutoCacheAds(true);
-
-            // Chartboost depends on Activity's lifecycle events to initialize its SDK. Chartboost
-            // requires onCreate, onStart and onResume callbacks to initialize its SDK.  By the time
-            // AdMob SDK requests this adapter to initialize the SDK, all three callbacks might have
-            // already been called. So, we call Chartboost's onCreate, onStart and onResume methods
-            // so that the Chartboost SDK will be initialized.
-            Chartboost.onCreate(activity);
-            Chartboost.onStart(activity);
-            Chartboost.onResume(activity);
-        } else {
-            adapterDelegate.didInitialize();
-        }
+        mIsChartboostInitializing = true;
+        Chartboost.startWithAppId(activity, params.getAppId(), params.getAppSignature());
+
+        Chartboost.setMediation(Chartboost.CBMediation.CBMediationAdMob,
+                BuildConfig.VERSION_NAME);
+        Chartboost.setLoggingLevel(CBLogging.Level.INTEGRATION);
+        Chartboost.setDelegate(getInstance());
+        Chartboost.setAutoCacheAds(true);
+
+        // Chartboost depends on Activity's lifecycle events to initialize its SDK. Chartboost
+        // requires onCreate, onStart and onResume callbacks to initialize its SDK.  By the time
+        // AdMob SDK requests this adapter to initialize the SDK, all three callbacks might have
+        // already been called. So, we call Chartboost's onCreate, onStart and onResume methods
+        // so that the Chartboost SDK will be initialized.
+        Chartboost.onCreate(activity);
+        Chartboost.onStart(activity);
+        Chartboost.onResume(activity);
     }
 
     /**
@@ -239,9 +264,12 @@ public final class ChartboostSingleton {
     protected static void loadInterstitialAd(AbstractChartboostAdapterDelegate delegate) {
         // Get the location for which the ads need to be loaded.
         String location = delegate.getChartboostParams().getLocation();
-        if (Chartboost.hasInterstitial(location)) {
+        boolean isCached = Chartboost.hasInterstitial(location);
+        mPrecacher.recordInterstitialRequest(location, isCached);
+        if (isCached) {
             // Interstitial ad already cached and is ready to be shown, send onAdLoaded event to
             // the adapter.
+            mInterstitialDelegates.remove(location, delegate);
             delegate.didCacheInterstitial(location);
         } else {
             // Ad not cached for mLocation yet, request Chartboost to cache interstitial ads for
@@ -258,6 +286,7 @@ public final class ChartboostSingleton {
      */
     protected static void showInterstitialAd(AbstractChartboostAdapterDelegate delegate) {
         // Displays a cached interstitial if available, else loads from server.
+        mShowingInterstitialDelegate = new WeakReference<>(delegate);
         Chartboost.showInterstitial(delegate.getChartboostParams().getLocation());
     }
 
@@ -272,8 +301,11 @@ public final class ChartboostSingleton {
     protected static void loadRewardedVideoAd(AbstractChartboostAdapterDelegate delegate) {
         // Get the location for which the ads need to be loaded.
         String location = delegate.getChartboostParams().getLocation();
-        if (Chartboost.hasRewardedVideo(location)) {
+        boolean isCached = Chartboost.hasRewardedVideo(location);
+        mPrecacher.recordRewardedRequest(location, isCached);
+        if (isCached) {
             // Video ad already cached and ready to show, send onAdLoaded event to the adapter.
+            mRewardedDelegates.remove(location, delegate);
             delegate.didCacheRewardedVideo(location);
         } else {
             // Ad not cached for mLocation yet, request Chartboost to cache rewarded video for
@@ -290,6 +322,7 @@ public final class ChartboostSingleton {
      */
     protected static void showRewardedVideoAd(AbstractChartboostAdapterDelegate delegate) {
         // Displays a cached video if available, else loads from server.
+        mShowingRewardedDelegate = new WeakReference<>(delegate);
         Chartboost.showRewardedVideo(delegate.getChartboostParams().getLocation());
     }
 
@@ -297,7 +330,9 @@ public final class ChartboostSingleton {
      * The
      * {@link com.google.ads.mediation.chartboost.ChartboostSingleton.ChartboostSingletonDelegate}
      * is used to forward events from Chartboost SDK to Google Mobile Ads SDK for adapters based
-     * on which adapters are currently loading ads and wich adapter is currently displaying ad.
+     * on which adapters are currently loading ads and which adapter is currently displaying ad.
+     * Cache events are forwarded to every adapter waiting for the location, in the order they
+     * requested an ad, while display events are only forwarded to the adapter showing the ad.
      */
     private static final class ChartboostSingletonDelegate extends ChartboostDelegate {
 
@@ -309,30 +344,22 @@ public final class ChartboostSingleton {
             mIsChartboostInitializing = false;
             mIsChartboostInitialized = true;
 
-            for (WeakReference<AbstractChartboostAdapterDelegate> reference :
-                    mInterstitialDelegates.values()) {
-                if (reference.get() != null) {
-                    reference.get().didInitialize();
-                }
-            }
+            // Notify every adapter that requested an ad while Chartboost was initializing.
+            mInitCoordinator.onInitialized();
 
-            for (WeakReference<AbstractChartboostAdapterDelegate> reference :
-                    mRewardedDelegates.values()) {
-                if (reference.get() != null) {
-                    reference.get().didInitialize();
-                }
-            }
+            // Start caching the locations found when the adapter was initialized.
+            mPrecacher.start();
         }
 
         @Override
         public void didCacheInterstitial(String location) {
             // Interstitial ad has been loaded from the Chartboost API servers and cached locally.
             super.didCacheInterstitial(location);
+            mPrecacher.onInterstitialCacheResult(location, true);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getInterstitialDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didCacheInterstitial(location);
+            for (AbstractChartboostAdapterDelegate delegate :
+                    mInterstitialDelegates.removeAll(location)) {
+                delegate.didCacheInterstitial(location);
             }
         }
 
@@ -341,12 +368,21 @@ public final class ChartboostSingleton {
             // Interstitial ad has attempted to load from the Chartboost API servers but failed.
             super.didFailToLoadInterstitial(location, error);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getInterstitialDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didFailToLoadInterstitial(location, error);
+            if (error == CBError.CBImpressionError.INTERNET_UNAVAILABLE_AT_SHOW) {
+                // The ad failed to show, only the adapter showing the ad needs to know.
+                AbstractChartboostAdapterDelegate delegate =
+                        getDelegate(mShowingInterstitialDelegate);
+                if (delegate != null) {
+                    delegate.didFailToLoadInterstitial(location, error);
+                }
+                return;
+            }
+
+            mPrecacher.onInterstitialCacheResult(location, false);
+            for (AbstractChartboostAdapterDelegate delegate :
+                    mInterstitialDelegates.removeAll(location)) {
+                delegate.didFailToLoadInterstitial(location, error);
             }
-            mInterstitialDelegates.remove(location);
         }
 
         @Override
@@ -354,10 +390,9 @@ public final class ChartboostSingleton {
             // Interstitial ad has been displayed on the screen.
             super.didDisplayInterstitial(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getInterstitialDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didDisplayInterstitial(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingInterstitialDelegate);
+            if (delegate != null) {
+                delegate.didDisplayInterstitial(location);
             }
         }
 
@@ -366,12 +401,11 @@ public final class ChartboostSingleton {
             // Interstitial ad has been dismissed.
             super.didDismissInterstitial(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getInterstitialDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didDismissInterstitial(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingInterstitialDelegate);
+            mShowingInterstitialDelegate = null;
+            if (delegate != null) {
+                delegate.didDismissInterstitial(location);
             }
-            mInterstitialDelegates.remove(location);
         }
 
         @Override
@@ -379,10 +413,9 @@ public final class ChartboostSingleton {
             // Interstitial ad has been clicked.
             super.didClickInterstitial(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getInterstitialDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didClickInterstitial(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingInterstitialDelegate);
+            if (delegate != null) {
+                delegate.didClickInterstitial(location);
             }
         }
 
@@ -390,11 +423,11 @@ public final class ChartboostSingleton {
         public void didCacheRewardedVideo(String location) {
             // Rewarded video has been loaded from the Chartboost API servers and cached locally.
             super.didCacheRewardedVideo(location);
+            mPrecacher.onRewardedCacheResult(location, true);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didCacheRewardedVideo(location);
+            for (AbstractChartboostAdapterDelegate delegate :
+                    mRewardedDelegates.removeAll(location)) {
+                delegate.didCacheRewardedVideo(location);
             }
         }
 
@@ -402,12 +435,20 @@ public final class ChartboostSingleton {
         public void didFailToLoadRewardedVideo(String location, CBError.CBImpressionError error) {
             super.didFailToLoadRewardedVideo(location, error);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didFailToLoadRewardedVideo(location, error);
+            if (error == CBError.CBImpressionError.INTERNET_UNAVAILABLE_AT_SHOW) {
+                // The ad failed to show, only the adapter showing the ad needs to know.
+                AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingRewardedDelegate);
+                if (delegate != null) {
+                    delegate.didFailToLoadRewardedVideo(location, error);
+                }
+                return;
+            }
+
+            mPrecacher.onRewardedCacheResult(location, false);
+            for (AbstractChartboostAdapterDelegate delegate :
+                    mRewardedDelegates.removeAll(location)) {
+                delegate.didFailToLoadRewardedVideo(location, error);
             }
-            mRewardedDelegates.remove(location);
         }
 
         @Override
@@ -415,10 +456,9 @@ public final class ChartboostSingleton {
             // Rewarded video has been clicked.
             super.didClickRewardedVideo(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didClickRewardedVideo(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingRewardedDelegate);
+            if (delegate != null) {
+                delegate.didClickRewardedVideo(location);
             }
         }
 
@@ -427,10 +467,9 @@ public final class ChartboostSingleton {
             // Rewarded video has been displayed on the screen.
             super.didDisplayRewardedVideo(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didDisplayRewardedVideo(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingRewardedDelegate);
+            if (delegate != null) {
+                delegate.didDisplayRewardedVideo(location);
             }
         }
 
@@ -439,10 +478,9 @@ public final class ChartboostSingleton {
             // Rewarded video has been viewed completely and user is eligible for reward.
             super.didCompleteRewardedVideo(location, reward);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didCompleteRewardedVideo(location, reward);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingRewardedDelegate);
+            if (delegate != null) {
+                delegate.didCompleteRewardedVideo(location, reward);
             }
         }
 
@@ -451,12 +489,11 @@ public final class ChartboostSingleton {
             // Rewarded video has been dismissed.
             super.didDismissRewardedVideo(location);
 
-            WeakReference<AbstractChartboostAdapterDelegate> reference =
-                    getRewardedDelegate(location);
-            if (reference != null && reference.get() != null) {
-                reference.get().didDismissRewardedVideo(location);
+            AbstractChartboostAdapterDelegate delegate = getDelegate(mShowingRewardedDelegate);
+            mShowingRewardedDelegate = null;
+            if (delegate != null) {
+                delegate.didDismissRewardedVideo(location);
             }
-            mRewardedDelegates.remove(location);
         }
     }
 }
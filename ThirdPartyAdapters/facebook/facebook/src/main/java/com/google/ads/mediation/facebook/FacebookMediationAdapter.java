@@ -36,10 +36,10 @@ public class FacebookMediationAdapter extends RtbAdapter {
 
     public static final String TAG = FacebookAdapter.class.getSimpleName();
 
-    private FacebookRtbBannerAd banner;
-    private FacebookRtbInterstitialAd interstitial;
-    private FacebookRtbNativeAd nativeAd;
-    private FacebookRewardedAd rewardedAd;
+    /**
+     * Renderers of the ads being loaded by this adapter.
+     */
+    private final FacebookRendererRegistry mRenderers = new FacebookRendererRegistry();
 
     public static final String PLACEMENT_PARAMETER = "pubid";
     public static final String RTB_PLACEMENT_PARAMETER = "placement_id";
@@ -116,28 +116,44 @@ public class FacebookMediationAdapter extends RtbAdapter {
     @Override
     public void loadRewardedAd(MediationRewardedAdConfiguration mediationRewardedAdConfiguration,
                                MediationAdLoadCallback<MediationRewardedAd, MediationRewardedAdCallback> mediationAdLoadCallback) {
-        rewardedAd = new FacebookRewardedAd(mediationRewardedAdConfiguration, mediationAdLoadCallback);
+        FacebookRendererRegistry.RegisteredLoadCallback<MediationRewardedAd,
+                MediationRewardedAdCallback> callback = mRenderers.wrap(mediationAdLoadCallback);
+        FacebookRewardedAd rewardedAd =
+                new FacebookRewardedAd(mediationRewardedAdConfiguration, callback);
+        mRenderers.register(rewardedAd, callback);
         rewardedAd.render();
     }
 
     @Override
     public void loadBannerAd(MediationBannerAdConfiguration adConfiguration,
                              MediationAdLoadCallback<MediationBannerAd, MediationBannerAdCallback> mediationAdLoadCallback) {
-        banner = new FacebookRtbBannerAd(adConfiguration, mediationAdLoadCallback);
+        FacebookRendererRegistry.RegisteredLoadCallback<MediationBannerAd,
+                MediationBannerAdCallback> callback = mRenderers.wrap(mediationAdLoadCallback);
+        FacebookRtbBannerAd banner = new FacebookRtbBannerAd(adConfiguration, callback);
+        mRenderers.register(banner, callback);
         banner.render();
     }
 
     @Override
     public void loadInterstitialAd(MediationInterstitialAdConfiguration adConfiguration,
                                    MediationAdLoadCallback<MediationInterstitialAd, MediationInterstitialAdCallback> mediationAdLoadCallback) {
-        interstitial = new FacebookRtbInterstitialAd(adConfiguration, mediationAdLoadCallback);
+        FacebookRendererRegistry.RegisteredLoadCallback<MediationInterstitialAd,
+                MediationInterstitialAdCallback> callback =
+                mRenderers.wrap(mediationAdLoadCallback);
+        FacebookRtbInterstitialAd interstitial =
+                new FacebookRtbInterstitialAd(adConfiguration, callback);
+        mRenderers.register(interstitial, callback);
         interstitial.render();
     }
 
     @Override
     public void loadNativeAd(MediationNativeAdConfiguration mediationNativeAdConfiguration,
                              MediationAdLoadCallback<UnifiedNativeAdMapper, MediationNativeAdCallback> mediationAdLoadCallback) {
-        nativeAd = new FacebookRtbNativeAd(mediationNativeAdConfiguration, mediationAdLoadCallback);
+        FacebookRendererRegistry.RegisteredLoadCallback<UnifiedNativeAdMapper,
+                MediationNativeAdCallback> callback = mRenderers.wrap(mediationAdLoadCallback);
+        FacebookRtbNativeAd nativeAd =
+                new FacebookRtbNativeAd(mediationNativeAdConfiguration, callback);
+        mRenderers.register(nativeAd, callback);
         nativeAd.render();
     }
 
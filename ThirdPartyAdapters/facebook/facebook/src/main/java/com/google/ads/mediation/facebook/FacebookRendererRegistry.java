@@ -0,0 +1,75 @@
+package com.google.ads.mediation.facebook;
+
+import com.google.android.gms.ads.mediation.MediationAdLoadCallback;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link FacebookRendererRegistry} class holds the renderers of the ads loaded by a
+ * {@link FacebookMediationAdapter}, so that concurrent loads on the same adapter each keep their
+ * renderer. A renderer is held until its load fails, or until it succeeds and the loaded ad is
+ * handed to the Google Mobile Ads SDK, which then holds it until the ad is destroyed.
+ */
+final class FacebookRendererRegistry {
+
+    /**
+     * Initial capacity of the registry, enough for the concurrent loads of a busy app without
+     * resizing.
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final Set<Object> mRenderers = Collections.newSetFromMap(
+            new ConcurrentHashMap<Object, Boolean>(INITIAL_CAPACITY));
+
+    /**
+     * Returns a load callback that forwards to the given callback and releases the renderer once
+     * its load has completed. The renderer must be registered with
+     * {@link #register(Object, RegisteredLoadCallback)} before it starts loading.
+     *
+     * @param callback the load callback given by the Google Mobile Ads SDK.
+     */
+    <A, C> RegisteredLoadCallback<A, C> wrap(MediationAdLoadCallback<A, C> callback) {
+        return new RegisteredLoadCallback<>(callback);
+    }
+
+    /**
+     * Holds the renderer until the given wrapped callback receives its load result.
+     */
+    void register(Object renderer, RegisteredLoadCallback<?, ?> callback) {
+        callback.mRenderer = renderer;
+        mRenderers.add(renderer);
+    }
+
+    private void release(Object renderer) {
+        if (renderer != null) {
+            mRenderers.remove(renderer);
+        }
+    }
+
+    /**
+     * A load callback releasing its renderer from the registry once the load has completed.
+     */
+    final class RegisteredLoadCallback<A, C> implements MediationAdLoadCallback<A, C> {
+
+        private final MediationAdLoadCallback<A, C> mCallback;
+        private volatile Object mRenderer;
+
+        private RegisteredLoadCallback(MediationAdLoadCallback<A, C> callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public C onSuccess(A ad) {
+            release(mRenderer);
+            return mCallback.onSuccess(ad);
+        }
+
+        @Override
+        public void onFailure(String error) {
+            release(mRenderer);
+            mCallback.onFailure(error);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.mediation.MediationAdRequest;
 import com.google.android.gms.ads.mediation.MediationInterstitialAdapter;
 import com.google.android.gms.ads.mediation.MediationInterstitialListener;
-import com.google.ads.mediation.ironsource.IronSourceMediationAdapter.INSTANCE_STATE;
 
 import com.ironsource.mediationsdk.IronSource;
 import com.ironsource.mediationsdk.logger.IronSourceError;
@@ -47,22 +46,6 @@ public class IronSourceAdapter
     private final static List<IronSource.AD_UNIT> mAdUnitsToInit =
             new ArrayList<>(Collections.singletonList(IronSource.AD_UNIT.INTERSTITIAL));
 
-    /**
-     * Holds the interstitial instance state
-     */
-    private INSTANCE_STATE mState = INSTANCE_STATE.START;
-
-    /**
-     * This is the id of interstitial instance requested.
-     */
-    INSTANCE_STATE getInstanceState() {
-        return mState;
-    }
-
-    void setInstanceState(IronSourceMediationAdapter.INSTANCE_STATE mState) {
-        this.mState = mState;
-    }
-
     //region MediationInterstitialAdapter implementation.
     @Override
     public void requestInterstitialAd(Context context,
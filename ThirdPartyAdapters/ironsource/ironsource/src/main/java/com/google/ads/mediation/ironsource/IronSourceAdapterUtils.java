@@ -2,6 +2,9 @@ package com.google.ads.mediation.ironsource;
 
 import android.os.Handler;
 import android.os.Looper;
+import androidx.annotation.Nullable;
+
+import com.ironsource.mediationsdk.IronSource;
 
 /*
  * The {@link IronSourceAdapterUtils} class provides the publisher an ability to pass Activity to
@@ -46,4 +49,17 @@ public class IronSourceAdapterUtils {
         }
         uiHandler.post(runnable);
     }
+
+    /**
+     * Returns the number of live and dead IronSource instances tracked by the adapters for the
+     * given ad unit. Instances are dead once their adapter has been garbage collected, and are
+     * removed shortly after.
+     *
+     * @param adUnit the IronSource ad unit, either rewarded video or interstitial.
+     * @return a snapshot of the instances, or {@code null} if the ad unit is not supported.
+     */
+    @Nullable
+    public static IronSourceInstanceStats getInstanceStats(IronSource.AD_UNIT adUnit) {
+        return IronSourceManager.getInstance().getInstanceStats(adUnit);
+    }
 }
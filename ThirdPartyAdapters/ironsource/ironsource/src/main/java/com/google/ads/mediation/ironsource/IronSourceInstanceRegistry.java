@@ -0,0 +1,425 @@
+package com.google.ads.mediation.ironsource;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.ads.mediation.ironsource.IronSourceMediationAdapter.INSTANCE_STATE;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@link IronSourceInstanceRegistry} keeps track of which adapter holds each IronSource
+ * demand-only instance and the state of that instance. Each instance moves through
+ * {@link INSTANCE_STATE#CAN_LOAD} -> {@link INSTANCE_STATE#LOCKED} -> {@link INSTANCE_STATE#SHOWING}
+ * -> {@link INSTANCE_STATE#CAN_LOAD}, and every transition is a single compare-and-set on an
+ * immutable {@link InstanceHolder}, so two adapters can never lock the same instance.
+ *
+ * <p>Adapters requesting an instance that is in use wait in a bounded FIFO queue. When the
+ * instance is released, the first waiting adapter locks it and
+ * {@link Listener#onWaiterPromoted} is called. Waiters that do not get the instance within the
+ * wait timeout are removed and reported through {@link Listener#onWaiterTimedOut}.
+ *
+ * <p>Adapters are only weakly referenced. Once an adapter is garbage collected, its reference is
+ * enqueued and the instance is removed on the next call to the registry, unless other adapters
+ * are waiting for it.
+ *
+ * @param <T> the type of adapter holding the instances.
+ */
+final class IronSourceInstanceRegistry<T> {
+
+    /**
+     * Maximum number of adapters waiting for each instance.
+     */
+    static final int DEFAULT_MAX_WAITERS = 3;
+
+    /**
+     * Time an adapter waits for an instance before its request fails, in milliseconds.
+     */
+    static final long DEFAULT_WAIT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Result of {@link #lockOrEnqueue}.
+     */
+    enum LockResult {
+        LOCKED, // The adapter holds the instance and can load it.
+        QUEUED, // The adapter waits for the instance to be released.
+        REJECTED, // The wait queue of the instance is full.
+    }
+
+    /**
+     * Receives the waiting adapters once they get the instance or time out.
+     */
+    interface Listener<T> {
+
+        /**
+         * Called when a waiting adapter locked the instance and should now load it.
+         */
+        void onWaiterPromoted(@NonNull String instanceId, @NonNull T adapter);
+
+        /**
+         * Called when an adapter did not get the instance before the wait timeout.
+         */
+        void onWaiterTimedOut(@NonNull String instanceId, @NonNull T adapter);
+    }
+
+    /**
+     * The state of an instance and the adapter holding it. Never modified once created.
+     */
+    static final class InstanceHolder<T> {
+
+        final INSTANCE_STATE state;
+        final WeakReference<T> adapterReference;
+
+        InstanceHolder(INSTANCE_STATE state, WeakReference<T> adapterReference) {
+            this.state = state;
+            this.adapterReference = adapterReference;
+        }
+    }
+
+    private final ConcurrentHashMap<String, InstanceSlot<T>> mInstances =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Queue to which the garbage collector adds the cleared {@link AdapterReference}s.
+     */
+    private final ReferenceQueue<T> mReferenceQueue = new ReferenceQueue<>();
+
+    /**
+     * Number of instances removed because their adapter was garbage collected.
+     */
+    private final AtomicLong mSweptEntries = new AtomicLong();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Listener<T> mListener;
+
+    private final int mMaxWaiters;
+
+    private final long mWaitTimeoutMillis;
+
+    IronSourceInstanceRegistry(@NonNull Listener<T> listener) {
+        this(listener, DEFAULT_MAX_WAITERS, DEFAULT_WAIT_TIMEOUT_MILLIS);
+    }
+
+    IronSourceInstanceRegistry(@NonNull Listener<T> listener, int maxWaiters,
+                               long waitTimeoutMillis) {
+        mListener = listener;
+        mMaxWaiters = maxWaiters;
+        mWaitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    /**
+     * Locks the instance for the given adapter if it is free and no other adapter is waiting for
+     * it. Otherwise, adds the adapter to the wait queue of the instance if there is room.
+     *
+     * @param instanceId the IronSource instance ID.
+     * @param adapter    the adapter requesting to load the instance.
+     * @return whether the adapter holds the instance, is waiting for it or was rejected.
+     */
+    @NonNull
+    LockResult lockOrEnqueue(@NonNull String instanceId, @NonNull T adapter) {
+        expungeStaleReferences();
+        InstanceSlot<T> slot;
+        while (true) {
+            slot = getSlot(instanceId);
+            synchronized (slot.waiters) {
+                if (slot.isRemoved) {
+                    // The slot was swept after it was looked up, use a new one.
+                    continue;
+                }
+                removeDeadWaiters(slot);
+                if (slot.waiters.isEmpty() && tryLock(instanceId, slot, adapter)) {
+                    return LockResult.LOCKED;
+                }
+                if (slot.waiters.size() >= mMaxWaiters) {
+                    return LockResult.REJECTED;
+                }
+                Waiter<T> waiter =
+                        new Waiter<>(new AdapterReference<>(instanceId, adapter, mReferenceQueue));
+                waiter.timeoutRunnable = createTimeoutRunnable(instanceId, slot, waiter);
+                slot.waiters.add(waiter);
+                mHandler.postDelayed(waiter.timeoutRunnable, mWaitTimeoutMillis);
+                break;
+            }
+        }
+
+        // The instance may have been released before the adapter was queued.
+        promoteNextWaiter(instanceId, slot);
+        return LockResult.QUEUED;
+    }
+
+    /**
+     * Moves a loaded instance to the showing state.
+     *
+     * @param instanceId the IronSource instance ID.
+     * @return {@code true} if the instance was loaded and is now showing, {@code false} otherwise.
+     */
+    boolean markShowing(@NonNull String instanceId) {
+        InstanceSlot<T> slot = mInstances.get(instanceId);
+        if (slot == null) {
+            return false;
+        }
+        while (true) {
+            InstanceHolder<T> current = slot.holder.get();
+            if (current == null || current.state != INSTANCE_STATE.LOCKED) {
+                return false;
+            }
+            InstanceHolder<T> showing =
+                    new InstanceHolder<>(INSTANCE_STATE.SHOWING, current.adapterReference);
+            if (slot.holder.compareAndSet(current, showing)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Makes the instance available for loading again, keeping its current adapter so that late
+     * callbacks can still be forwarded to it, and hands the instance to the first waiting adapter.
+     *
+     * <p>Once this returns, {@link #getAdapter} may already return the promoted waiter, so the
+     * event that released the instance must be sent to the returned adapter.
+     *
+     * @param instanceId the IronSource instance ID.
+     * @return the adapter that held the instance before it was released, or {@code null} if
+     * there is none.
+     */
+    @Nullable
+    T release(@NonNull String instanceId) {
+        expungeStaleReferences();
+        InstanceSlot<T> slot = mInstances.get(instanceId);
+        if (slot == null) {
+            return null;
+        }
+        T previousAdapter;
+        while (true) {
+            InstanceHolder<T> current = slot.holder.get();
+            previousAdapter = current != null ? current.adapterReference.get() : null;
+            if (current == null || current.state == INSTANCE_STATE.CAN_LOAD) {
+                break;
+            }
+            InstanceHolder<T> released =
+                    new InstanceHolder<>(INSTANCE_STATE.CAN_LOAD, current.adapterReference);
+            if (slot.holder.compareAndSet(current, released)) {
+                break;
+            }
+        }
+        promoteNextWaiter(instanceId, slot);
+        return previousAdapter;
+    }
+
+    /**
+     * @param instanceId the IronSource instance ID.
+     * @return the adapter holding the instance, or {@code null} if there is none.
+     */
+    @Nullable
+    T getAdapter(@NonNull String instanceId) {
+        InstanceSlot<T> slot = mInstances.get(instanceId);
+        InstanceHolder<T> holder = slot != null ? slot.holder.get() : null;
+        return holder != null ? holder.adapterReference.get() : null;
+    }
+
+    /**
+     * @param instanceId the IronSource instance ID.
+     * @return the state of the instance, {@link INSTANCE_STATE#START} if it was never loaded.
+     */
+    @NonNull
+    INSTANCE_STATE getState(@NonNull String instanceId) {
+        InstanceSlot<T> slot = mInstances.get(instanceId);
+        InstanceHolder<T> holder = slot != null ? slot.holder.get() : null;
+        return holder != null ? holder.state : INSTANCE_STATE.START;
+    }
+
+    /**
+     * Returns a snapshot of the instances tracked by this registry. Instances whose adapter has
+     * been garbage collected are counted as dead until they are swept.
+     *
+     * @return the number of live and dead instances and of waiting requests.
+     */
+    @NonNull
+    IronSourceInstanceStats getStats() {
+        int liveEntries = 0;
+        int deadEntries = 0;
+        int waitingRequests = 0;
+        for (InstanceSlot<T> slot : mInstances.values()) {
+            InstanceHolder<T> holder = slot.holder.get();
+            if (holder != null) {
+                if (holder.adapterReference.get() != null) {
+                    liveEntries++;
+                } else {
+                    deadEntries++;
+                }
+            }
+            synchronized (slot.waiters) {
+                waitingRequests += slot.waiters.size();
+            }
+        }
+        expungeStaleReferences();
+        return new IronSourceInstanceStats(
+                liveEntries, deadEntries, waitingRequests, mSweptEntries.get());
+    }
+
+    /**
+     * Locks the instance for the first live waiting adapter, if the instance is free, and notifies
+     * the listener outside of the queue lock.
+     */
+    private void promoteNextWaiter(String instanceId, InstanceSlot<T> slot) {
+        T promoted = null;
+        synchronized (slot.waiters) {
+            removeDeadWaiters(slot);
+            Waiter<T> waiter = slot.waiters.peek();
+            if (waiter != null) {
+                T adapter = waiter.adapterReference.get();
+                if (adapter != null && tryLock(instanceId, slot, adapter)) {
+                    slot.waiters.poll();
+                    mHandler.removeCallbacks(waiter.timeoutRunnable);
+                    promoted = adapter;
+                }
+            }
+        }
+        if (promoted != null) {
+            mListener.onWaiterPromoted(instanceId, promoted);
+        }
+    }
+
+    private Runnable createTimeoutRunnable(final String instanceId,
+                                           final InstanceSlot<T> slot,
+                                           final Waiter<T> waiter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                // Give the queue a last chance in case the holder was garbage collected.
+                promoteNextWaiter(instanceId, slot);
+
+                boolean removed;
+                synchronized (slot.waiters) {
+                    removed = slot.waiters.remove(waiter);
+                }
+                T adapter = waiter.adapterReference.get();
+                if (removed && adapter != null) {
+                    mListener.onWaiterTimedOut(instanceId, adapter);
+                }
+            }
+        };
+    }
+
+    /**
+     * Locks the instance for the given adapter if no live adapter is loading or showing it.
+     */
+    private boolean tryLock(String instanceId, InstanceSlot<T> slot, T adapter) {
+        InstanceHolder<T> locked = new InstanceHolder<>(INSTANCE_STATE.LOCKED,
+                new AdapterReference<>(instanceId, adapter, mReferenceQueue));
+        while (true) {
+            InstanceHolder<T> current = slot.holder.get();
+            if (current != null && current.state != INSTANCE_STATE.CAN_LOAD
+                    && current.adapterReference.get() != null) {
+                return false;
+            }
+            if (slot.holder.compareAndSet(current, locked)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the waiters whose adapters have been garbage collected. Must hold the queue lock.
+     */
+    private void removeDeadWaiters(InstanceSlot<T> slot) {
+        Iterator<Waiter<T>> iterator = slot.waiters.iterator();
+        while (iterator.hasNext()) {
+            Waiter<T> waiter = iterator.next();
+            if (waiter.adapterReference.get() == null) {
+                mHandler.removeCallbacks(waiter.timeoutRunnable);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the instances whose adapters were garbage collected since the last call, as long as
+     * no live adapter is waiting for them.
+     */
+    private void expungeStaleReferences() {
+        Reference<? extends T> reference;
+        while ((reference = mReferenceQueue.poll()) != null) {
+            String instanceId = ((AdapterReference<? extends T>) reference).mInstanceId;
+            InstanceSlot<T> slot = mInstances.get(instanceId);
+            if (slot == null) {
+                continue;
+            }
+            synchronized (slot.waiters) {
+                removeDeadWaiters(slot);
+                InstanceHolder<T> holder = slot.holder.get();
+                boolean isHolderDead = holder == null || holder.adapterReference.get() == null;
+                if (!slot.isRemoved && isHolderDead && slot.waiters.isEmpty()) {
+                    slot.isRemoved = true;
+                    mInstances.remove(instanceId, slot);
+                    mSweptEntries.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private InstanceSlot<T> getSlot(String instanceId) {
+        InstanceSlot<T> slot = mInstances.get(instanceId);
+        if (slot == null) {
+            InstanceSlot<T> newSlot = new InstanceSlot<>();
+            slot = mInstances.putIfAbsent(instanceId, newSlot);
+            if (slot == null) {
+                slot = newSlot;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * The holder of an instance and the adapters waiting for it.
+     */
+    private static final class InstanceSlot<T> {
+
+        final AtomicReference<InstanceHolder<T>> holder = new AtomicReference<>();
+
+        final LinkedList<Waiter<T>> waiters = new LinkedList<>();
+
+        /**
+         * Whether the slot was removed from the registry. Guarded by the {@link #waiters} lock.
+         */
+        boolean isRemoved;
+    }
+
+    /**
+     * An adapter waiting for an instance, with the runnable failing it once the wait times out.
+     */
+    private static final class Waiter<T> {
+
+        final WeakReference<T> adapterReference;
+
+        Runnable timeoutRunnable;
+
+        Waiter(WeakReference<T> adapterReference) {
+            this.adapterReference = adapterReference;
+        }
+    }
+
+    /**
+     * A weak reference to an adapter that remembers the instance it was registered for, so that
+     * the instance can be swept once the adapter is collected.
+     */
+    private static final class AdapterReference<T> extends WeakReference<T> {
+
+        private final String mInstanceId;
+
+        AdapterReference(String instanceId, T adapter, ReferenceQueue<? super T> queue) {
+            super(adapter, queue);
+            mInstanceId = instanceId;
+        }
+    }
+}
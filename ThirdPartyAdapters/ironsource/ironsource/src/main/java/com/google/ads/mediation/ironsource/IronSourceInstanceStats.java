@@ -0,0 +1,57 @@
+package com.google.ads.mediation.ironsource;
+
+/**
+ * The {@link IronSourceInstanceStats} class is a snapshot of the IronSource instances tracked by
+ * the adapter for one ad unit.
+ */
+public final class IronSourceInstanceStats {
+
+    private final int mLiveEntries;
+    private final int mDeadEntries;
+    private final int mWaitingRequests;
+    private final long mSweptEntries;
+
+    IronSourceInstanceStats(int liveEntries, int deadEntries, int waitingRequests,
+                            long sweptEntries) {
+        mLiveEntries = liveEntries;
+        mDeadEntries = deadEntries;
+        mWaitingRequests = waitingRequests;
+        mSweptEntries = sweptEntries;
+    }
+
+    /**
+     * @return the number of instances held by an adapter that is still alive.
+     */
+    public int getLiveEntries() {
+        return mLiveEntries;
+    }
+
+    /**
+     * @return the number of instances whose adapter has been garbage collected but that have not
+     * been removed yet.
+     */
+    public int getDeadEntries() {
+        return mDeadEntries;
+    }
+
+    /**
+     * @return the number of ad requests waiting for an instance to be released.
+     */
+    public int getWaitingRequests() {
+        return mWaitingRequests;
+    }
+
+    /**
+     * @return the number of instances removed since the adapter started because their adapter
+     * was garbage collected.
+     */
+    public long getSweptEntries() {
+        return mSweptEntries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IronSourceInstanceStats{live=%d, dead=%d, waiting=%d, swept=%d}",
+                mLiveEntries, mDeadEntries, mWaitingRequests, mSweptEntries);
+    }
+}
@@ -13,7 +13,6 @@ import com.google.ads.mediation.ironsource.IronSourceMediationAdapter.INSTANCE_S
 
 import java.lang.ref.WeakReference;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.ads.mediation.ironsource.IronSourceAdapterUtils.ADAPTER_VERSION_NAME;
 import static com.google.ads.mediation.ironsource.IronSourceAdapterUtils.MEDIATION_NAME;
@@ -26,17 +25,54 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
 
     private static final IronSourceManager instance = new IronSourceManager();
 
-    private ConcurrentHashMap<String, WeakReference<IronSourceMediationAdapter>> availableInstances;
+    /**
+     * Rewarded video and interstitial instances, with the adapter holding each of them.
+     */
+    private final IronSourceInstanceRegistry<IronSourceMediationAdapter> availableInstances;
 
-    private ConcurrentHashMap<String, WeakReference<IronSourceAdapter>> availableInterstitialInstances;
+    private final IronSourceInstanceRegistry<IronSourceAdapter> availableInterstitialInstances;
 
     static IronSourceManager getInstance() {
         return instance;
     }
 
     private IronSourceManager() {
-        availableInstances = new ConcurrentHashMap<>();
-        availableInterstitialInstances = new ConcurrentHashMap<>();
+        availableInstances = new IronSourceInstanceRegistry<>(
+                new IronSourceInstanceRegistry.Listener<IronSourceMediationAdapter>() {
+                    @Override
+                    public void onWaiterPromoted(@NonNull String instanceId,
+                                                 @NonNull IronSourceMediationAdapter adapter) {
+                        log(String.format("IronSourceManager loading queued RV request for instance %s",
+                                instanceId));
+                        IronSource.loadISDemandOnlyRewardedVideo(instanceId);
+                    }
+
+                    @Override
+                    public void onWaiterTimedOut(@NonNull String instanceId,
+                                                 @NonNull IronSourceMediationAdapter adapter) {
+                        adapter.onRewardedVideoAdLoadFailed(instanceId, new IronSourceError(
+                                IronSourceError.ERROR_CODE_GENERIC,
+                                "timed out waiting for the instance to become available"));
+                    }
+                });
+        availableInterstitialInstances = new IronSourceInstanceRegistry<>(
+                new IronSourceInstanceRegistry.Listener<IronSourceAdapter>() {
+                    @Override
+                    public void onWaiterPromoted(@NonNull String instanceId,
+                                                 @NonNull IronSourceAdapter adapter) {
+                        log(String.format("IronSourceManager loading queued interstitial request for instance %s",
+                                instanceId));
+                        IronSource.loadISDemandOnlyInterstitial(instanceId);
+                    }
+
+                    @Override
+                    public void onWaiterTimedOut(@NonNull String instanceId,
+                                                 @NonNull IronSourceAdapter adapter) {
+                        adapter.onInterstitialAdLoadFailed(instanceId, new IronSourceError(
+                                IronSourceError.ERROR_CODE_GENERIC,
+                                "timed out waiting for the interstitial instance to become available"));
+                    }
+                });
         IronSource.setISDemandOnlyRewardedVideoListener(this);
         IronSource.setISDemandOnlyInterstitialListener(this);
     }
@@ -60,13 +96,18 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
             return;
         }
 
-        if (canLoadInterstitialInstance(instanceId)) {
-            changeInterstitialInstanceState(ironSourceAdapter, INSTANCE_STATE.LOCKED);
-            registerISInterstitialAdapter(instanceId, weakAdapter);
-            IronSource.loadISDemandOnlyInterstitial(instanceId);
-        } else {
-            ironSourceAdapter.onInterstitialAdLoadFailed(instanceId, new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
-                    "interstitial instance already exists, couldn't load another one at the same time!"));
+        switch (availableInterstitialInstances.lockOrEnqueue(instanceId, ironSourceAdapter)) {
+            case LOCKED:
+                log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.LOCKED));
+                IronSource.loadISDemandOnlyInterstitial(instanceId);
+                break;
+            case QUEUED:
+                log(String.format("IronSourceManager queued interstitial request for instance %s", instanceId));
+                break;
+            case REJECTED:
+                ironSourceAdapter.onInterstitialAdLoadFailed(instanceId, new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
+                        "interstitial instance already exists, couldn't load another one at the same time!"));
+                break;
         }
     }
 
@@ -83,196 +124,114 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
             return;
         }
 
-        if (canLoadRewardedVideoInstance(instanceId)) {
-            changeRewardedInstanceState(ironSourceMediationAdapter, INSTANCE_STATE.LOCKED);
-            registerISRewardedVideoAdapter(instanceId, weakAdapter);
-            IronSource.loadISDemandOnlyRewardedVideo(instanceId);
-        } else {
-            ironSourceMediationAdapter.onRewardedVideoAdLoadFailed(instanceId, new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
-                    "instance already exists, couldn't load another one in the same time!"));
+        switch (availableInstances.lockOrEnqueue(instanceId, ironSourceMediationAdapter)) {
+            case LOCKED:
+                log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.LOCKED));
+                IronSource.loadISDemandOnlyRewardedVideo(instanceId);
+                break;
+            case QUEUED:
+                log(String.format("IronSourceManager queued RV request for instance %s", instanceId));
+                break;
+            case REJECTED:
+                ironSourceMediationAdapter.onRewardedVideoAdLoadFailed(instanceId, new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
+                        "instance already exists, couldn't load another one in the same time!"));
+                break;
         }
     }
 
-
-    private boolean canLoadInterstitialInstance(String instanceId) {
-        if (!isIsInterstitialAdapterRegistered(instanceId)) {
-            return true;
-        }
-
-        if (isRegisteredInterstitialAdapterCanLoad(instanceId)) {
-            return true;
-        }
-        return false;
-
-    }
-
-    private boolean canLoadRewardedVideoInstance(String instanceId) {
-
-        if (!isISRewardedVideoAdapterRegistered(instanceId)) {
-            return true;
-        }
-        if (isRegisteredRewardedVideoAdapterCanLoad(instanceId)) {
-            return true;
-        }
-        return false;
-    }
-
-    private boolean isRegisteredInterstitialAdapterCanLoad(String instanceId) {
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-        if (weakAdapter == null) {
-            return true;
-        }
-        IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-        if (ironSourceAdapter == null) {
-            return true;
-        }
-        if (!ironSourceAdapter.getInstanceState().equals(INSTANCE_STATE.CAN_LOAD)) {
-            return false;
-        }
-        return true;
-    }
-
-    private boolean isRegisteredRewardedVideoAdapterCanLoad(String instanceId) {
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-        if (weakAdapter == null) {
-            return true;
-        }
-        IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-        if (ironSourceMediationAdapter == null) {
-            return true;
-        }
-        if (!ironSourceMediationAdapter.getInstanceState().equals(INSTANCE_STATE.CAN_LOAD)) {
-            return false;
-        }
-        return true;
-    }
-
     void showRewardedVideo(String instanceId) {
+        if (!availableInstances.markShowing(instanceId)) {
+            log(String.format("IronSourceManager can't show RV instance %s in state %s",
+                    instanceId, availableInstances.getState(instanceId)));
+            IronSourceMediationAdapter ironSourceMediationAdapter =
+                    availableInstances.getAdapter(instanceId);
+            if (ironSourceMediationAdapter != null) {
+                ironSourceMediationAdapter.onRewardedVideoAdShowFailed(instanceId,
+                        new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
+                                "instance is not loaded or is already showing"));
+            }
+            return;
+        }
+        log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.SHOWING));
         IronSource.showISDemandOnlyRewardedVideo(instanceId);
     }
 
     void showInterstitial(String instanceId) {
-        IronSource.showISDemandOnlyInterstitial(instanceId);
-    }
-
-    private void registerISInterstitialAdapter(@NonNull String instanceId,
-                                               @NonNull WeakReference<IronSourceAdapter> weakAdapter) {
-        if (weakAdapter == null) {
-            log("registerISInterstitialAdapter - weakAdapter is null");
-            return;
-        }
-        IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-        if (ironSourceAdapter == null) {
-            log("registerISInterstitialAdapter - ironSourceMediationAdapter is null");
+        if (!availableInterstitialInstances.markShowing(instanceId)) {
+            log(String.format("IronSourceManager can't show interstitial instance %s in state %s",
+                    instanceId, availableInterstitialInstances.getState(instanceId)));
+            IronSourceAdapter ironSourceAdapter = availableInterstitialInstances.getAdapter(instanceId);
+            if (ironSourceAdapter != null) {
+                ironSourceAdapter.onInterstitialAdShowFailed(instanceId,
+                        new IronSourceError(IronSourceError.ERROR_CODE_GENERIC,
+                                "interstitial instance is not loaded or is already showing"));
+            }
             return;
         }
-        availableInterstitialInstances.put(instanceId, weakAdapter);
+        log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.SHOWING));
+        IronSource.showISDemandOnlyInterstitial(instanceId);
     }
 
-    private void registerISRewardedVideoAdapter(@NonNull String instanceId,
-                                                @NonNull WeakReference<IronSourceMediationAdapter> weakAdapter) {
-        if (weakAdapter == null) {
-            log("registerISRewardedVideoAdapter - weakAdapter is null");
-            return;
-        }
-
-        IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-
-        if (ironSourceMediationAdapter == null) {
-            log("registerISRewardedVideoAdapter - ironSourceMediationAdapter is null");
-            return;
-        }
-
-        availableInstances.put(instanceId, weakAdapter);
+    /**
+     * @param adUnit the IronSource ad unit, either rewarded video or interstitial.
+     * @return a snapshot of the instances tracked for the ad unit, or {@code null} if the adapter
+     * does not support it.
+     */
+    IronSourceInstanceStats getInstanceStats(IronSource.AD_UNIT adUnit) {
+        if (adUnit == IronSource.AD_UNIT.REWARDED_VIDEO) {
+            return availableInstances.getStats();
+        } else if (adUnit == IronSource.AD_UNIT.INTERSTITIAL) {
+            return availableInterstitialInstances.getStats();
+        }
+        return null;
     }
 
-    private boolean isIsInterstitialAdapterRegistered(@NonNull String instanceId) {
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Releases the rewarded video instance.
+     *
+     * @return the adapter that held the instance, which must receive the releasing event.
+     */
+    private IronSourceMediationAdapter releaseRewardedInstance(String instanceId) {
+        log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.CAN_LOAD));
+        return availableInstances.release(instanceId);
     }
 
-    private boolean isISRewardedVideoAdapterRegistered(@NonNull String instanceId) {
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Releases the interstitial instance.
+     *
+     * @return the adapter that held the instance, which must receive the releasing event.
+     */
+    private IronSourceAdapter releaseInterstitialInstance(String instanceId) {
+        log(String.format("IronSourceManager change state to %s", INSTANCE_STATE.CAN_LOAD));
+        return availableInterstitialInstances.release(instanceId);
     }
 
     @Override
     public void onRewardedVideoAdLoadSuccess(String instanceId) {
         log(String.format("IronSourceManager got RV Load success for instance %s", instanceId));
 
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                ironSourceMediationAdapter.onRewardedVideoAdLoadSuccess(instanceId);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = availableInstances.getAdapter(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdLoadSuccess(instanceId);
         }
     }
 
     @Override
     public void onRewardedVideoAdLoadFailed(String instanceId, IronSourceError ironSourceError) {
         log(String.format("IronSourceManager got RV Load failed for instance %s", instanceId));
-
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                changeRewardedInstanceState(ironSourceMediationAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceMediationAdapter.onRewardedVideoAdLoadFailed(instanceId, ironSourceError);
-            }
-        }
-    }
-
-    private void changeRewardedInstanceState(IronSourceMediationAdapter ironSourceMediationAdapter,
-                                     INSTANCE_STATE newState) {
-
-        if (ironSourceMediationAdapter == null) {
-            log("changeRewardedInstanceState - IronSourceMediationAdapter is null");
-            return;
-        }
-
-        log(String.format("IronSourceManager change state to %s", newState));
-        ironSourceMediationAdapter.setInstanceState(newState);
-
-    }
-
-    private void changeInterstitialInstanceState(IronSourceAdapter ironSourceAdapter,
-                                                INSTANCE_STATE newState) {
-        if (ironSourceAdapter == null) {
-            log("changeInterstitialInstanceState - IronSourceAdapter is null");
-            return;
+        IronSourceMediationAdapter ironSourceMediationAdapter = releaseRewardedInstance(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdLoadFailed(instanceId, ironSourceError);
         }
-
-        log(String.format("IronSourceManager change state to %s", newState));
-        ironSourceAdapter.setInstanceState(newState);
     }
 
     @Override
     public void onRewardedVideoAdOpened(String instanceId) {
         log(String.format("IronSourceManager got RV ad opened for instance %s", instanceId));
 
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                ironSourceMediationAdapter.onRewardedVideoAdOpened(instanceId);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = availableInstances.getAdapter(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdOpened(instanceId);
         }
     }
 
@@ -283,32 +242,18 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
     @Override
     public void onRewardedVideoAdClosed(String instanceId) {
         log(String.format("IronSourceManager got RV ad closed for instance %s", instanceId));
-
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                changeRewardedInstanceState(ironSourceMediationAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceMediationAdapter.onRewardedVideoAdClosed(instanceId);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = releaseRewardedInstance(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdClosed(instanceId);
         }
     }
 
     @Override
     public void onRewardedVideoAdShowFailed(String instanceId, IronSourceError ironSourceError) {
         log(String.format("IronSourceManager got RV show failed for instance %s", instanceId));
-
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                changeRewardedInstanceState(ironSourceMediationAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceMediationAdapter.onRewardedVideoAdShowFailed(instanceId, ironSourceError);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = releaseRewardedInstance(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdShowFailed(instanceId, ironSourceError);
         }
     }
 
@@ -316,13 +261,9 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
     public void onRewardedVideoAdClicked(String instanceId) {
         log(String.format("IronSourceManager got RV ad clicked for instance %s", instanceId));
 
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                ironSourceMediationAdapter.onRewardedVideoAdClicked(instanceId);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = availableInstances.getAdapter(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdClicked(instanceId);
         }
     }
 
@@ -330,13 +271,9 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
     public void onRewardedVideoAdRewarded(String instanceId) {
         log(String.format("IronSourceManager got RV ad rewarded for instance %s", instanceId));
 
-        WeakReference<IronSourceMediationAdapter> weakAdapter = availableInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceMediationAdapter ironSourceMediationAdapter = weakAdapter.get();
-            if (ironSourceMediationAdapter != null) {
-                ironSourceMediationAdapter.onRewardedVideoAdRewarded(instanceId);
-            }
+        IronSourceMediationAdapter ironSourceMediationAdapter = availableInstances.getAdapter(instanceId);
+        if (ironSourceMediationAdapter != null) {
+            ironSourceMediationAdapter.onRewardedVideoAdRewarded(instanceId);
         }
     }
 
@@ -344,95 +281,56 @@ class IronSourceManager implements ISDemandOnlyRewardedVideoListener, ISDemandOn
     public void onInterstitialAdReady(String instanceId) {
         log(String.format("IronSourceManager got interstitial Load success for instance %s", instanceId));
 
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                ironSourceAdapter.onInterstitialAdReady(instanceId);
-            }
+        IronSourceAdapter ironSourceAdapter = availableInterstitialInstances.getAdapter(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdReady(instanceId);
         }
     }
 
     @Override
     public void onInterstitialAdLoadFailed(String instanceId, IronSourceError ironSourceError) {
         log(String.format("IronSourceManager got interstitial Load failed for instance %s", instanceId));
-
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                changeInterstitialInstanceState(ironSourceAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceAdapter.onInterstitialAdLoadFailed(instanceId, ironSourceError);
-
-            }
-
+        IronSourceAdapter ironSourceAdapter = releaseInterstitialInstance(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdLoadFailed(instanceId, ironSourceError);
         }
-
     }
 
     @Override
     public void onInterstitialAdOpened(String instanceId) {
         log(String.format("IronSourceManager got interstitial ad opened for instance %s", instanceId));
 
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                ironSourceAdapter.onInterstitialAdOpened(instanceId);
-            }
+        IronSourceAdapter ironSourceAdapter = availableInterstitialInstances.getAdapter(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdOpened(instanceId);
         }
-
     }
 
     @Override
     public void onInterstitialAdClosed(String instanceId) {
         log(String.format("IronSourceManager got interstitial ad closed for instance %s", instanceId));
-
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                changeInterstitialInstanceState(ironSourceAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceAdapter.onInterstitialAdClosed(instanceId);
-            }
+        IronSourceAdapter ironSourceAdapter = releaseInterstitialInstance(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdClosed(instanceId);
         }
-
     }
 
     @Override
     public void onInterstitialAdShowFailed(String instanceId, IronSourceError ironSourceError) {
         log(String.format("IronSourceManager got interstitial show failed for instance %s", instanceId));
-
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                changeInterstitialInstanceState(ironSourceAdapter,
-                        IronSourceMediationAdapter.INSTANCE_STATE.CAN_LOAD);
-                ironSourceAdapter.onInterstitialAdShowFailed(instanceId, ironSourceError);
-            }
+        IronSourceAdapter ironSourceAdapter = releaseInterstitialInstance(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdShowFailed(instanceId, ironSourceError);
         }
-
     }
 
     @Override
     public void onInterstitialAdClicked(String instanceId) {
         log(String.format("IronSourceManager got interstitial ad clicked for instance %s", instanceId));
 
-        WeakReference<IronSourceAdapter> weakAdapter = availableInterstitialInstances.get(instanceId);
-
-        if (weakAdapter != null) {
-            IronSourceAdapter ironSourceAdapter = weakAdapter.get();
-            if (ironSourceAdapter != null) {
-                ironSourceAdapter.onInterstitialAdClicked(instanceId);
-            }
+        IronSourceAdapter ironSourceAdapter = availableInterstitialInstances.getAdapter(instanceId);
+        if (ironSourceAdapter != null) {
+            ironSourceAdapter.onInterstitialAdClicked(instanceId);
         }
     }
 }
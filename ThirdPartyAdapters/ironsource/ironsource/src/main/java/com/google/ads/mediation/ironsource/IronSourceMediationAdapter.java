@@ -50,28 +50,16 @@ public class IronSourceMediationAdapter extends Adapter
      */
     private MediationAdLoadCallback<MediationRewardedAd, MediationRewardedAdCallback> mMediationAdLoadCallback;
 
-    /**
-     * Holds the instance state
-     */
-    private INSTANCE_STATE mState = INSTANCE_STATE.START;
-
     /**
      * This is the id of the rewarded video instance requested.
      */
     private String mInstanceID;
 
-    INSTANCE_STATE getInstanceState() {
-        return mState;
-    }
-
-    void setInstanceState(INSTANCE_STATE mState) {
-        this.mState = mState;
-    }
-
     enum INSTANCE_STATE {
         START, //Initial state when instance wasn't loaded yet
         CAN_LOAD, //If load is called on an instance with this state, pass it forward to IronSource SDK
         LOCKED, //if load is called on an instance with this state, report load fail
+        SHOWING, //The loaded ad of the instance is being shown, report load fail until it closes
     }
 
     /**
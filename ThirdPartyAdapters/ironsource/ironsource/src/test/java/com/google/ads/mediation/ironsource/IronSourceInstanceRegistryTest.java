@@ -0,0 +1,173 @@
+package com.google.ads.mediation.ironsource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import com.google.ads.mediation.ironsource.IronSourceInstanceRegistry.LockResult;
+import com.google.ads.mediation.ironsource.IronSourceMediationAdapter.INSTANCE_STATE;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link IronSourceInstanceRegistry}.
+ */
+public class IronSourceInstanceRegistryTest {
+
+    private static final String INSTANCE_ID = "0";
+
+    private final List<Object> mPromotedAdapters =
+            Collections.synchronizedList(new ArrayList<Object>());
+
+    private IronSourceInstanceRegistry<Object> mRegistry;
+
+    @Before
+    public void setUp() {
+        mRegistry = new IronSourceInstanceRegistry<>(
+                new IronSourceInstanceRegistry.Listener<Object>() {
+                    @Override
+                    public void onWaiterPromoted(@NonNull String instanceId,
+                                                 @NonNull Object adapter) {
+                        mPromotedAdapters.add(adapter);
+                    }
+
+                    @Override
+                    public void onWaiterTimedOut(@NonNull String instanceId,
+                                                 @NonNull Object adapter) {
+                    }
+                });
+    }
+
+    @Test
+    public void lockOrEnqueue_concurrentRequests_locksInstanceOnce() throws Exception {
+        final int requestCount = 16;
+        // Adapters are weakly referenced by the registry, keep them alive for the test.
+        final List<Object> adapters = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            adapters.add(new Object());
+        }
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requestCount);
+        List<Future<LockResult>> results = new ArrayList<>();
+        for (final Object adapter : adapters) {
+            results.add(executor.submit(new Callable<LockResult>() {
+                @Override
+                public LockResult call() throws Exception {
+                    startLatch.await();
+                    return mRegistry.lockOrEnqueue(INSTANCE_ID, adapter);
+                }
+            }));
+        }
+        startLatch.countDown();
+
+        int locked = 0;
+        int queued = 0;
+        int rejected = 0;
+        for (Future<LockResult> result : results) {
+            switch (result.get(5, TimeUnit.SECONDS)) {
+                case LOCKED:
+                    locked++;
+                    break;
+                case QUEUED:
+                    queued++;
+                    break;
+                case REJECTED:
+                    rejected++;
+                    break;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, locked);
+        assertEquals(IronSourceInstanceRegistry.DEFAULT_MAX_WAITERS, queued);
+        assertEquals(requestCount - 1 - IronSourceInstanceRegistry.DEFAULT_MAX_WAITERS, rejected);
+        assertEquals(INSTANCE_STATE.LOCKED, mRegistry.getState(INSTANCE_ID));
+        assertTrue(adapters.contains(mRegistry.getAdapter(INSTANCE_ID)));
+    }
+
+    @Test
+    public void release_promotesWaitersInRequestOrder() {
+        Object first = new Object();
+        Object second = new Object();
+        Object third = new Object();
+
+        assertEquals(LockResult.LOCKED, mRegistry.lockOrEnqueue(INSTANCE_ID, first));
+        assertEquals(LockResult.QUEUED, mRegistry.lockOrEnqueue(INSTANCE_ID, second));
+        assertEquals(LockResult.QUEUED, mRegistry.lockOrEnqueue(INSTANCE_ID, third));
+        assertTrue(mPromotedAdapters.isEmpty());
+
+        mRegistry.release(INSTANCE_ID);
+        assertEquals(1, mPromotedAdapters.size());
+        assertSame(second, mPromotedAdapters.get(0));
+        assertSame(second, mRegistry.getAdapter(INSTANCE_ID));
+        assertEquals(INSTANCE_STATE.LOCKED, mRegistry.getState(INSTANCE_ID));
+
+        mRegistry.release(INSTANCE_ID);
+        assertEquals(2, mPromotedAdapters.size());
+        assertSame(third, mPromotedAdapters.get(1));
+        assertSame(third, mRegistry.getAdapter(INSTANCE_ID));
+
+        mRegistry.release(INSTANCE_ID);
+        assertEquals(2, mPromotedAdapters.size());
+        assertEquals(INSTANCE_STATE.CAN_LOAD, mRegistry.getState(INSTANCE_ID));
+    }
+
+    @Test
+    public void release_returnsHolderBeforePromotion() {
+        Object holder = new Object();
+        Object waiter = new Object();
+        mRegistry.lockOrEnqueue(INSTANCE_ID, holder);
+        mRegistry.lockOrEnqueue(INSTANCE_ID, waiter);
+
+        assertSame(holder, mRegistry.release(INSTANCE_ID));
+        assertSame(waiter, mRegistry.getAdapter(INSTANCE_ID));
+        assertSame(waiter, mRegistry.release(INSTANCE_ID));
+    }
+
+    @Test
+    public void release_unknownInstance_returnsNull() {
+        assertNull(mRegistry.release(INSTANCE_ID));
+    }
+
+    @Test
+    public void markShowing_onlyFromLocked() {
+        Object adapter = new Object();
+        assertFalse(mRegistry.markShowing(INSTANCE_ID));
+
+        mRegistry.lockOrEnqueue(INSTANCE_ID, adapter);
+        assertTrue(mRegistry.markShowing(INSTANCE_ID));
+        assertEquals(INSTANCE_STATE.SHOWING, mRegistry.getState(INSTANCE_ID));
+        assertFalse(mRegistry.markShowing(INSTANCE_ID));
+
+        mRegistry.release(INSTANCE_ID);
+        assertFalse(mRegistry.markShowing(INSTANCE_ID));
+    }
+
+    @Test
+    public void lockOrEnqueue_afterRelease_locksWithoutWaiting() {
+        Object first = new Object();
+        Object second = new Object();
+        mRegistry.lockOrEnqueue(INSTANCE_ID, first);
+        mRegistry.release(INSTANCE_ID);
+
+        assertEquals(LockResult.LOCKED, mRegistry.lockOrEnqueue(INSTANCE_ID, second));
+        assertSame(second, mRegistry.getAdapter(INSTANCE_ID));
+        assertTrue(mPromotedAdapters.isEmpty());
+    }
+}
@@ -0,0 +1,269 @@
+package com.google.ads.mediation.unity;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@link UnityAdsMetrics} class exposes show funnel metrics for the Unity Ads placements
+ * requested through the adapter, so that apps can tune when they preload Unity Ads interstitial
+ * and rewarded ads.
+ */
+public final class UnityAdsMetrics {
+
+    /**
+     * Metrics for each placement ID.
+     */
+    private static final ConcurrentHashMap<String, PlacementMetrics> sPlacementMetrics =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Latest impression and missed impression ordinals sent to Unity Ads.
+     */
+    private static final AtomicInteger sImpressionOrdinal = new AtomicInteger();
+    private static final AtomicInteger sMissedImpressionOrdinal = new AtomicInteger();
+
+    private UnityAdsMetrics() {
+    }
+
+    /**
+     * Returns the metrics collected for the given placement.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return the placement metrics, or {@code null} if the placement hasn't been requested.
+     */
+    @Nullable
+    public static PlacementMetrics getPlacementMetrics(@NonNull String placementId) {
+        return sPlacementMetrics.get(placementId);
+    }
+
+    /**
+     * @return the IDs of every placement with collected metrics.
+     */
+    @NonNull
+    public static Set<String> getPlacementIds() {
+        return Collections.unmodifiableSet(new HashSet<>(sPlacementMetrics.keySet()));
+    }
+
+    /**
+     * @return the number of successful show requests sent to Unity Ads.
+     */
+    public static int getImpressionOrdinal() {
+        return sImpressionOrdinal.get();
+    }
+
+    /**
+     * @return the number of failed show requests sent to Unity Ads.
+     */
+    public static int getMissedImpressionOrdinal() {
+        return sMissedImpressionOrdinal.get();
+    }
+
+    /**
+     * Clears all the collected metrics. The impression ordinals are not reset since Unity Ads
+     * expects them to keep increasing.
+     */
+    public static void reset() {
+        sPlacementMetrics.clear();
+    }
+
+    static void recordLoadRequested(String placementId) {
+        getOrCreate(placementId).mLoadStartTime.compareAndSet(0, SystemClock.elapsedRealtime());
+    }
+
+    static void recordReady(String placementId) {
+        PlacementMetrics metrics = sPlacementMetrics.get(placementId);
+        if (metrics == null) {
+            return;
+        }
+        long loadStartTime = metrics.mLoadStartTime.getAndSet(0);
+        if (loadStartTime > 0) {
+            metrics.mLoadToReady.record(SystemClock.elapsedRealtime() - loadStartTime);
+        }
+    }
+
+    static void recordShowAttempt(String placementId, int impressionOrdinal) {
+        sImpressionOrdinal.set(impressionOrdinal);
+        PlacementMetrics metrics = getOrCreate(placementId);
+        metrics.mShowAttempts.incrementAndGet();
+        metrics.mShowTime.set(SystemClock.elapsedRealtime());
+    }
+
+    static void recordMissedShow(String placementId, int missedImpressionOrdinal) {
+        sMissedImpressionOrdinal.set(missedImpressionOrdinal);
+        PlacementMetrics metrics = getOrCreate(placementId);
+        metrics.mShowAttempts.incrementAndGet();
+        metrics.mMissedShows.incrementAndGet();
+    }
+
+    static void recordStart(String placementId) {
+        PlacementMetrics metrics = sPlacementMetrics.get(placementId);
+        if (metrics == null) {
+            return;
+        }
+        long showTime = metrics.mShowTime.get();
+        if (showTime > 0) {
+            metrics.mShowToStart.record(SystemClock.elapsedRealtime() - showTime);
+        }
+    }
+
+    static void recordFinish(String placementId) {
+        PlacementMetrics metrics = sPlacementMetrics.get(placementId);
+        if (metrics == null) {
+            return;
+        }
+        long showTime = metrics.mShowTime.getAndSet(0);
+        if (showTime > 0) {
+            metrics.mShowToFinish.record(SystemClock.elapsedRealtime() - showTime);
+        }
+    }
+
+    private static PlacementMetrics getOrCreate(String placementId) {
+        PlacementMetrics metrics = sPlacementMetrics.get(placementId);
+        if (metrics == null) {
+            PlacementMetrics newMetrics = new PlacementMetrics();
+            metrics = sPlacementMetrics.putIfAbsent(placementId, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Show funnel counters and latency histograms of a single placement.
+     */
+    public static final class PlacementMetrics {
+
+        private final AtomicLong mShowAttempts = new AtomicLong();
+        private final AtomicLong mMissedShows = new AtomicLong();
+
+        /**
+         * Time of the oldest load request not yet answered by a ready event, and time of the last
+         * show request, in {@link SystemClock#elapsedRealtime()} milliseconds. 0 if none.
+         */
+        private final AtomicLong mLoadStartTime = new AtomicLong();
+        private final AtomicLong mShowTime = new AtomicLong();
+
+        private final LatencyHistogram mLoadToReady = new LatencyHistogram();
+        private final LatencyHistogram mShowToStart = new LatencyHistogram();
+        private final LatencyHistogram mShowToFinish = new LatencyHistogram();
+
+        PlacementMetrics() {
+        }
+
+        /**
+         * @return the number of times an ad was requested to be shown for this placement.
+         */
+        public long getShowAttempts() {
+            return mShowAttempts.get();
+        }
+
+        /**
+         * @return the number of show requests that failed because no ad was ready.
+         */
+        public long getMissedShows() {
+            return mMissedShows.get();
+        }
+
+        /**
+         * @return the time from an ad request until Unity Ads reported the placement as ready.
+         */
+        @NonNull
+        public LatencyHistogram getLoadToReady() {
+            return mLoadToReady;
+        }
+
+        /**
+         * @return the time from a show request until the ad started playing.
+         */
+        @NonNull
+        public LatencyHistogram getShowToStart() {
+            return mShowToStart;
+        }
+
+        /**
+         * @return the time from a show request until the ad was closed.
+         */
+        @NonNull
+        public LatencyHistogram getShowToFinish() {
+            return mShowToFinish;
+        }
+    }
+
+    /**
+     * A histogram of latencies in milliseconds with fixed buckets.
+     */
+    public static final class LatencyHistogram {
+
+        /**
+         * Inclusive upper bounds of the buckets, in milliseconds. The last bucket holds every
+         * value larger than the last bound.
+         */
+        private static final long[] BUCKET_UPPER_BOUNDS_MILLIS =
+                {100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+        private final AtomicLongArray mBucketCounts =
+                new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSumMillis = new AtomicLong();
+
+        LatencyHistogram() {
+        }
+
+        void record(long latencyMillis) {
+            int bucket = 0;
+            while (bucket < BUCKET_UPPER_BOUNDS_MILLIS.length
+                    && latencyMillis > BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            mBucketCounts.incrementAndGet(bucket);
+            mCount.incrementAndGet();
+            mSumMillis.addAndGet(latencyMillis);
+        }
+
+        /**
+         * @return the inclusive upper bounds of the buckets, in milliseconds. The count array
+         * returned by {@link #getBucketCounts()} has one extra bucket for larger values.
+         */
+        @NonNull
+        public static long[] getBucketUpperBoundsMillis() {
+            return BUCKET_UPPER_BOUNDS_MILLIS.clone();
+        }
+
+        /**
+         * @return the number of recorded values in each bucket.
+         */
+        @NonNull
+        public long[] getBucketCounts() {
+            long[] counts = new long[mBucketCounts.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = mBucketCounts.get(i);
+            }
+            return counts;
+        }
+
+        /**
+         * @return the number of recorded values.
+         */
+        public long getCount() {
+            return mCount.get();
+        }
+
+        /**
+         * @return the mean of the recorded values in milliseconds, or 0 if there is none.
+         */
+        public long getMeanMillis() {
+            long count = mCount.get();
+            return count == 0 ? 0 : mSumMillis.get() / count;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.google.ads.mediation.unity;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.unity3d.ads.metadata.MediationMetaData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link UnityMetadataBatcher} collects the {@link MediationMetaData} entries written by
+ * {@link UnitySingleton} within a short window and commits them to Unity Ads at once, instead of
+ * creating and committing a new {@link MediationMetaData} object for every ad request.
+ *
+ * <p>Every load request still gets its own unique key, and impressions are committed before the
+ * ad is shown, so Unity Ads sees the same data as with individual commits.</p>
+ */
+final class UnityMetadataBatcher {
+
+    /**
+     * Time to wait for more entries before committing, roughly one frame.
+     */
+    private static final long BATCH_WINDOW_MS = 16;
+
+    /**
+     * Unity Ads metadata category used to request placements to load.
+     */
+    private static final String CATEGORY_LOAD = "load";
+
+    /**
+     * Load entries only need a unique key per request. A random prefix is generated once and
+     * combined with a counter, which is much cheaper than a random UUID per request.
+     */
+    private final String mLoadKeyPrefix = UUID.randomUUID().toString();
+    private int mLoadKeyCounter;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * Application context used to commit the pending entries.
+     */
+    private Context mContext;
+
+    /**
+     * Pending load entries, keyed by their unique request key.
+     */
+    private final Map<String, String> mPendingLoads = new LinkedHashMap<>();
+
+    /**
+     * Latest pending impression and missed impression ordinals, or 0 if there is none. The
+     * ordinals are increasing counters, so committing the latest value reports every impression
+     * before it.
+     */
+    private int mPendingOrdinal;
+    private int mPendingMissedOrdinal;
+
+    private boolean mIsFlushScheduled;
+
+    /**
+     * Adds a request for Unity Ads to load the given placement.
+     *
+     * @param context     a context used to commit the metadata.
+     * @param placementId the Unity Ads placement ID to load.
+     */
+    synchronized void addLoad(@NonNull Context context, @NonNull String placementId) {
+        mContext = context.getApplicationContext();
+        mPendingLoads.put(mLoadKeyPrefix + "-" + (++mLoadKeyCounter), placementId);
+        scheduleFlush();
+    }
+
+    /**
+     * Adds a successful show request and commits all the pending entries right away, so that
+     * Unity Ads receives the ordinal before the ad is shown.
+     *
+     * @param context a context used to commit the metadata.
+     * @param ordinal the impression ordinal.
+     */
+    void addImpressionOrdinal(@NonNull Context context, int ordinal) {
+        synchronized (this) {
+            mContext = context.getApplicationContext();
+            mPendingOrdinal = ordinal;
+        }
+        flush();
+    }
+
+    /**
+     * Adds a failed show request.
+     *
+     * @param context a context used to commit the metadata.
+     * @param ordinal the missed impression ordinal.
+     */
+    synchronized void addMissedImpressionOrdinal(@NonNull Context context, int ordinal) {
+        mContext = context.getApplicationContext();
+        mPendingMissedOrdinal = ordinal;
+        scheduleFlush();
+    }
+
+    /**
+     * Commits all the pending entries to Unity Ads.
+     */
+    void flush() {
+        Context context;
+        Map<String, String> loads;
+        int ordinal;
+        int missedOrdinal;
+        synchronized (this) {
+            mHandler.removeCallbacks(mFlushRunnable);
+            mIsFlushScheduled = false;
+
+            context = mContext;
+            loads = new LinkedHashMap<>(mPendingLoads);
+            ordinal = mPendingOrdinal;
+            missedOrdinal = mPendingMissedOrdinal;
+
+            mPendingLoads.clear();
+            mPendingOrdinal = 0;
+            mPendingMissedOrdinal = 0;
+        }
+
+        if (context == null) {
+            return;
+        }
+
+        if (!loads.isEmpty()) {
+            // Tells Unity Ads to load the placements, if "enable_metadata_load" is set.
+            MediationMetaData loadMetadata = new MediationMetaData(context);
+            loadMetadata.setCategory(CATEGORY_LOAD);
+            for (Map.Entry<String, String> entry : loads.entrySet()) {
+                loadMetadata.set(entry.getKey(), entry.getValue());
+            }
+            loadMetadata.commit();
+        }
+
+        if (ordinal > 0 || missedOrdinal > 0) {
+            MediationMetaData ordinalMetadata = new MediationMetaData(context);
+            if (ordinal > 0) {
+                ordinalMetadata.setOrdinal(ordinal);
+            }
+            if (missedOrdinal > 0) {
+                ordinalMetadata.setMissedImpressionOrdinal(missedOrdinal);
+            }
+            ordinalMetadata.commit();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!mIsFlushScheduled) {
+            mIsFlushScheduled = true;
+            mHandler.postDelayed(mFlushRunnable, BATCH_WINDOW_MS);
+        }
+    }
+}
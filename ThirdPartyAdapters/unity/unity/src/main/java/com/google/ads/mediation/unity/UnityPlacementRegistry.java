@@ -0,0 +1,192 @@
+package com.google.ads.mediation.unity;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link UnityPlacementRegistry} keeps track of the {@link UnityAdapterDelegate}s waiting for
+ * an ad from each Unity Ads placement. Unity Ads only has one ad ready per placement at a time, so
+ * each placement has a single holder (the delegate that received the ready ad and has not shown it
+ * yet) and an ordered queue of delegates waiting for the next ready ad.
+ */
+final class UnityPlacementRegistry {
+
+    /**
+     * Placement ID to the delegates requesting ads for that placement.
+     */
+    private final ConcurrentHashMap<String, PlacementEntry> mPlacements =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Adds the given delegate to the end of the wait queue for its placement. Adding a delegate
+     * that is already queued or holding the placement has no effect.
+     *
+     * @param placementId the Unity Ads placement ID the delegate is waiting for.
+     * @param delegate    the delegate waiting for an ad.
+     */
+    void enqueue(@NonNull String placementId, @NonNull UnityAdapterDelegate delegate) {
+        getOrCreateEntry(placementId).enqueue(delegate);
+    }
+
+    /**
+     * Hands the ready ad for the given placement to the oldest live waiter, unless a live delegate
+     * is already holding it.
+     *
+     * @param placementId the Unity Ads placement ID that is ready.
+     * @return the delegate that should be notified of the ready ad, or {@code null} if there is
+     * none.
+     */
+    @Nullable
+    UnityAdapterDelegate promoteNextWaiter(@NonNull String placementId) {
+        PlacementEntry entry = mPlacements.get(placementId);
+        if (entry == null) {
+            return null;
+        }
+        return entry.promoteNextWaiter(placementId);
+    }
+
+    /**
+     * Releases the placement held by the given delegate, typically after the ad has been shown.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @param delegate    the delegate that was holding the placement.
+     */
+    void release(@NonNull String placementId, @Nullable UnityAdapterDelegate delegate) {
+        PlacementEntry entry = mPlacements.get(placementId);
+        if (entry != null) {
+            entry.release(delegate);
+        }
+    }
+
+    /**
+     * Removes the holder and every waiter for the given placement.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return the live delegates that were removed, holder first.
+     */
+    @NonNull
+    List<UnityAdapterDelegate> removeAll(@NonNull String placementId) {
+        PlacementEntry entry = mPlacements.get(placementId);
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        return entry.drain();
+    }
+
+    /**
+     * Removes every waiter for the given placement, leaving its holder in place.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return the live delegates that were removed, in queue order.
+     */
+    @NonNull
+    List<UnityAdapterDelegate> removeWaiters(@NonNull String placementId) {
+        PlacementEntry entry = mPlacements.get(placementId);
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        return entry.drainWaiters();
+    }
+
+    private PlacementEntry getOrCreateEntry(String placementId) {
+        PlacementEntry entry = mPlacements.get(placementId);
+        if (entry == null) {
+            PlacementEntry newEntry = new PlacementEntry();
+            entry = mPlacements.putIfAbsent(placementId, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The holder and waiters of a single placement. All access is guarded by the entry itself.
+     */
+    private static final class PlacementEntry {
+
+        private WeakReference<UnityAdapterDelegate> mHolder;
+
+        private final LinkedList<WeakReference<UnityAdapterDelegate>> mWaiters =
+                new LinkedList<>();
+
+        synchronized void enqueue(UnityAdapterDelegate delegate) {
+            if (mHolder != null && mHolder.get() == delegate) {
+                return;
+            }
+            Iterator<WeakReference<UnityAdapterDelegate>> iterator = mWaiters.iterator();
+            while (iterator.hasNext()) {
+                UnityAdapterDelegate waiter = iterator.next().get();
+                if (waiter == null) {
+                    iterator.remove();
+                } else if (waiter == delegate) {
+                    return;
+                }
+            }
+            mWaiters.add(new WeakReference<>(delegate));
+        }
+
+        synchronized UnityAdapterDelegate promoteNextWaiter(String placementId) {
+            if (mHolder != null) {
+                UnityAdapterDelegate holder = mHolder.get();
+                if (holder != null && placementId.equals(holder.getPlacementId())) {
+                    // The ready ad already belongs to a delegate that has not shown it yet.
+                    return null;
+                }
+                mHolder = null;
+            }
+
+            while (!mWaiters.isEmpty()) {
+                UnityAdapterDelegate waiter = mWaiters.removeFirst().get();
+                // Skip delegates that have been collected or reused for another placement.
+                if (waiter != null && placementId.equals(waiter.getPlacementId())) {
+                    mHolder = new WeakReference<>(waiter);
+                    return waiter;
+                }
+            }
+            return null;
+        }
+
+        synchronized void release(UnityAdapterDelegate delegate) {
+            if (mHolder != null && (delegate == null || mHolder.get() == delegate)) {
+                mHolder = null;
+            }
+        }
+
+        synchronized List<UnityAdapterDelegate> drainWaiters() {
+            List<UnityAdapterDelegate> delegates = new ArrayList<>(mWaiters.size());
+            for (WeakReference<UnityAdapterDelegate> reference : mWaiters) {
+                UnityAdapterDelegate waiter = reference.get();
+                if (waiter != null) {
+                    delegates.add(waiter);
+                }
+            }
+            mWaiters.clear();
+            return delegates;
+        }
+
+        synchronized List<UnityAdapterDelegate> drain() {
+            List<UnityAdapterDelegate> delegates = new ArrayList<>(mWaiters.size() + 1);
+            UnityAdapterDelegate holder = mHolder != null ? mHolder.get() : null;
+            if (holder != null) {
+                delegates.add(holder);
+            }
+            for (WeakReference<UnityAdapterDelegate> reference : mWaiters) {
+                UnityAdapterDelegate waiter = reference.get();
+                if (waiter != null) {
+                    delegates.add(waiter);
+                }
+            }
+            mHolder = null;
+            mWaiters.clear();
+            return delegates;
+        }
+    }
+}
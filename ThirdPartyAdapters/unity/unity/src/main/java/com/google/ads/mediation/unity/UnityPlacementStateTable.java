@@ -0,0 +1,88 @@
+package com.google.ads.mediation.unity;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.unity3d.ads.UnityAds;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link UnityPlacementStateTable} caches the latest {@link UnityAds.PlacementState} reported
+ * by Unity Ads for each placement, so that ad requests can be answered without querying the
+ * Unity Ads SDK. Entries are immutable and replaced as a whole, so readers never block.
+ */
+final class UnityPlacementStateTable {
+
+    /**
+     * The state of a placement and the time at which Unity Ads reported it.
+     */
+    static final class PlacementStatus {
+
+        final UnityAds.PlacementState state;
+
+        /**
+         * Time at which the state was reported, in {@link SystemClock#elapsedRealtime()}
+         * milliseconds.
+         */
+        final long timestamp;
+
+        PlacementStatus(UnityAds.PlacementState state, long timestamp) {
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final ConcurrentHashMap<String, PlacementStatus> mStates = new ConcurrentHashMap<>();
+
+    /**
+     * Records a new state for the given placement.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @param state       the new state of the placement.
+     */
+    void update(@NonNull String placementId, @NonNull UnityAds.PlacementState state) {
+        mStates.put(placementId, new PlacementStatus(state, SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * Returns the latest known status of the given placement.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return the placement status, or {@code null} if Unity Ads hasn't reported any state for
+     * the placement yet.
+     */
+    @Nullable
+    PlacementStatus get(@NonNull String placementId) {
+        return mStates.get(placementId);
+    }
+
+    /**
+     * Checks whether the given placement is ready to show an ad, falling back to
+     * {@link UnityAds#isReady(String)} if Unity Ads hasn't reported any state for it yet.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return {@code true} if the placement is ready, {@code false} otherwise.
+     */
+    boolean isReady(@NonNull String placementId) {
+        PlacementStatus status = mStates.get(placementId);
+        if (status == null) {
+            return UnityAds.isReady(placementId);
+        }
+        return status.state == UnityAds.PlacementState.READY;
+    }
+
+    /**
+     * Checks whether the given placement is known to be unable to fill an ad request, either
+     * because it has no fill or because it is disabled.
+     *
+     * @param placementId the Unity Ads placement ID.
+     * @return {@code true} if requests for the placement should fail right away.
+     */
+    boolean isUnfillable(@NonNull String placementId) {
+        PlacementStatus status = mStates.get(placementId);
+        return status != null && (status.state == UnityAds.PlacementState.NO_FILL
+                || status.state == UnityAds.PlacementState.DISABLED);
+    }
+}
@@ -27,8 +27,8 @@ import com.unity3d.services.banners.IUnityBannerListener;
 import com.unity3d.services.banners.UnityBanners;
 
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@link UnitySingleton} class is used to load {@link UnityAds}, handle multiple
@@ -37,10 +37,17 @@ import java.util.UUID;
 public final class UnitySingleton {
 
     /**
-     * A list of adapter listeners with their respective placement IDs to prevent duplicate requests.
+     * Adapter delegates waiting for an ad, queued by their respective placement IDs so that
+     * requests sharing a placement are filled in order instead of being rejected.
      */
-    private static HashMap<String, WeakReference<UnityAdapterDelegate>> mPlacementsInUse =
-            new HashMap<>();
+    private static final UnityPlacementRegistry mPlacementsInUse = new UnityPlacementRegistry();
+
+    /**
+     * Latest placement states reported by Unity Ads, used to answer ad requests without polling
+     * {@link UnityAds#isReady(String)}.
+     */
+    private static final UnityPlacementStateTable mPlacementStates =
+            new UnityPlacementStateTable();
 
     /**
      * A weak reference to the {@link UnityAdapterDelegate} of the {@link UnityAdapter} that is
@@ -53,16 +60,34 @@ public final class UnitySingleton {
      * {@link com.google.ads.mediation.unity.UnitySingleton.UnitySingletonListener}.
      */
     private static UnitySingletonListener unitySingletonListenerInstance;
-    private static WeakReference<UnityAdapterBannerDelegate> mBannerDelegate;
+
+    /**
+     * Banner adapter delegates with their respective placement IDs, so that several banners can
+     * be loaded at the same time.
+     */
+    private static final ConcurrentHashMap<String, WeakReference<UnityAdapterBannerDelegate>>
+            mBannerDelegates = new ConcurrentHashMap<>();
+
+    /**
+     * Placement ID of the last banner requested from {@link UnityBanners}. Unity Ads banner errors
+     * do not include a placement ID, so they are forwarded to this banner's delegate.
+     */
+    private static volatile String mLoadingBannerPlacementId;
 
     private static WeakReference<Activity> activity;
 
     /**
-     * Used by Unity Ads to track failures in the mediation lifecycle
+     * Used by Unity Ads to track failures in the mediation lifecycle. Also reported through
+     * {@link UnityAdsMetrics}.
      */
     private static int impressionOrdinal;
     private static int missedImpressionOrdinal;
 
+    /**
+     * Collects the {@link MediationMetaData} entries sent to Unity Ads and commits them in batches.
+     */
+    private static final UnityMetadataBatcher mMetadataBatcher = new UnityMetadataBatcher();
+
     /**
      * This method will return the
      * {@link com.google.ads.mediation.unity.UnitySingleton.UnitySingletonListener} instance.
@@ -127,8 +152,9 @@ public final class UnitySingleton {
                                              Activity activity,
                                              String gameId,
                                              @NonNull String placementId) {
-        if (!TextUtils.isEmpty(placementId) && !mPlacementsInUse.containsKey(placementId)) {
-            mPlacementsInUse.put(placementId, new WeakReference<>(delegate));
+        if (!TextUtils.isEmpty(placementId)) {
+            mPlacementsInUse.enqueue(placementId, delegate);
+            UnityAdsMetrics.recordLoadRequested(placementId);
         }
 
         return initializeUnityAds(activity, gameId);
@@ -150,7 +176,7 @@ public final class UnitySingleton {
                                              String gameId,
                                              @NonNull String placementId,
                                              UnityAdapterBannerDelegate bannerDelegate) {
-        mBannerDelegate = new WeakReference<>(bannerDelegate);
+        putBannerDelegate(bannerDelegate);
         return initializeUnityAds(delegate, activity, gameId, placementId);
     }
 
@@ -169,32 +195,48 @@ public final class UnitySingleton {
 
         // Tells Unity Ads to load a placement, if "metadata_load_enabled" is set
         // Calling this before UnityAds.inititalize() will cause the placement to load on init
-        String uuid = UUID.randomUUID().toString();
-        MediationMetaData metadata = new MediationMetaData(activity.get());
-        metadata.setCategory("load");
-        metadata.set(uuid, delegate.getPlacementId());
-        metadata.commit();
+        // The load requests made within a short window are committed together.
+        Activity activity = UnitySingleton.activity != null ? UnitySingleton.activity.get() : null;
+        if (activity != null) {
+            mMetadataBatcher.addLoad(activity, delegate.getPlacementId());
+        }
 
         if (UnityAds.isInitialized()) {
-
-            // Check if an AdMob Ad request has already loaded or is in progress of requesting
-            // an Ad from Unity Ads for a single placement, and fail if there's any.
-            if (mPlacementsInUse.containsKey(delegate.getPlacementId()) &&
-                    mPlacementsInUse.get(delegate.getPlacementId()).get() != null) {
-                Log.e(UnityMediationAdapter.TAG,
-                        "An ad is already loading for placement ID: " + delegate.getPlacementId());
+            // Fail right away if Unity Ads already reported that the placement can't fill,
+            // instead of waiting for the request to time out.
+            if (mPlacementStates.isUnfillable(delegate.getPlacementId())) {
+                Log.w(UnityMediationAdapter.TAG,
+                        "No ads available for placement ID: " + delegate.getPlacementId());
                 delegate.onUnityAdsError(UnityAds.UnityAdsError.INTERNAL_ERROR,
                         delegate.getPlacementId());
                 return;
             }
 
-            mPlacementsInUse.put(delegate.getPlacementId(), new WeakReference<>(delegate));
-            if (UnityAds.isReady(delegate.getPlacementId())) {
-                delegate.onUnityAdsReady(delegate.getPlacementId());
+            // Queue the request behind any other AdMob ad request that has already loaded or is
+            // in progress of requesting an ad from Unity Ads for the same placement. The request
+            // is filled once the ads ahead of it have been shown.
+            mPlacementsInUse.enqueue(delegate.getPlacementId(), delegate);
+            UnityAdsMetrics.recordLoadRequested(delegate.getPlacementId());
+            if (mPlacementStates.isReady(delegate.getPlacementId())) {
+                dispatchAdReady(delegate.getPlacementId());
             }
         }
     }
 
+    /**
+     * Sends the ad ready event for the given placement to the next adapter waiting for it, if the
+     * ready ad has not been handed to another adapter already.
+     *
+     * @param placementId Unity Ads Placement ID that is ready to show an ad.
+     */
+    private static void dispatchAdReady(String placementId) {
+        UnityAdapterDelegate delegate = mPlacementsInUse.promoteNextWaiter(placementId);
+        if (delegate != null) {
+            UnityAdsMetrics.recordReady(placementId);
+            delegate.onUnityAdsReady(placementId);
+        }
+    }
+
     /**
      * This method will load Unity ads for a given Placement ID and send the ad loaded event if the
      * ads have already loaded.
@@ -206,17 +248,88 @@ public final class UnitySingleton {
             Activity activity = UnitySingleton.activity.get();
 
             if (activity != null && UnityAds.isInitialized()) {
-                mBannerDelegate = new WeakReference<>(delegate);
+                putBannerDelegate(delegate);
 
-                if (UnityAds.isReady(delegate.getPlacementId())) {
-                    UnityBanners.loadBanner(activity, delegate.getPlacementId());
-                } else {
+                if (mPlacementStates.isReady(delegate.getPlacementId())) {
+                    loadBanner(activity, delegate.getPlacementId());
+                } else if (!hasOtherBanners(delegate.getPlacementId())) {
+                    // Only destroy the current banner if it doesn't belong to another adapter.
                     UnityBanners.destroy();
                 }
             }
         }
     }
 
+    /**
+     * Registers the given banner delegate for its placement ID, replacing any previous banner
+     * delegate for the same placement.
+     *
+     * @param delegate Used to forward Unity Ads banner events to the adapter.
+     */
+    private static void putBannerDelegate(UnityAdapterBannerDelegate delegate) {
+        if (delegate == null || TextUtils.isEmpty(delegate.getPlacementId())) {
+            return;
+        }
+
+        WeakReference<UnityAdapterBannerDelegate> previous = mBannerDelegates.put(
+                delegate.getPlacementId(), new WeakReference<>(delegate));
+        if (previous != null && previous.get() != null && previous.get() != delegate) {
+            Log.w(UnityMediationAdapter.TAG, "A banner ad is already loaded for placement ID: "
+                    + delegate.getPlacementId() + ". Replacing it with the new request.");
+        }
+    }
+
+    /**
+     * Returns the banner delegate registered for the given placement ID.
+     *
+     * @param placementId Unity Ads Placement ID of the banner.
+     * @return the banner delegate, or {@code null} if there is no live delegate.
+     */
+    private static UnityAdapterBannerDelegate getBannerDelegate(String placementId) {
+        if (placementId == null) {
+            return null;
+        }
+
+        WeakReference<UnityAdapterBannerDelegate> reference = mBannerDelegates.get(placementId);
+        if (reference == null) {
+            return null;
+        }
+
+        UnityAdapterBannerDelegate delegate = reference.get();
+        if (delegate == null) {
+            mBannerDelegates.remove(placementId, reference);
+        }
+        return delegate;
+    }
+
+    /**
+     * Checks whether any live banner delegate is registered for a placement other than the given
+     * one.
+     *
+     * @param placementId Unity Ads Placement ID to exclude.
+     * @return {@code true} if another banner is registered, {@code false} otherwise.
+     */
+    private static boolean hasOtherBanners(String placementId) {
+        for (String bannerPlacementId : mBannerDelegates.keySet()) {
+            if (!bannerPlacementId.equals(placementId)
+                    && getBannerDelegate(bannerPlacementId) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Requests a banner from {@link UnityBanners} and records which placement is loading.
+     *
+     * @param activity    The Activity context.
+     * @param placementId Unity Ads Placement ID of the banner.
+     */
+    private static void loadBanner(Activity activity, String placementId) {
+        mLoadingBannerPlacementId = placementId;
+        UnityBanners.loadBanner(activity, placementId);
+    }
+
     /**
      * This method will show an Unity Ad.
      *
@@ -231,25 +344,24 @@ public final class UnitySingleton {
 
 
         if(UnityAds.isReady(delegate.getPlacementId())) {
-            // Notify UnityAds that the adapter made a successful show request
-            MediationMetaData metadata = new MediationMetaData(activity);
-            metadata.setOrdinal(++impressionOrdinal);
-            metadata.commit();
+            // Notify UnityAds that the adapter made a successful show request. This also commits
+            // any pending metadata so that it reaches Unity Ads before the ad is shown.
+            mMetadataBatcher.addImpressionOrdinal(activity, ++impressionOrdinal);
+            UnityAdsMetrics.recordShowAttempt(delegate.getPlacementId(), impressionOrdinal);
 
             UnityAds.show(activity, delegate.getPlacementId());
         } else {
 
             // Notify UnityAds that the adapter fail to show (for Error tracking)
-            MediationMetaData metadata = new MediationMetaData(activity);
-            metadata.setMissedImpressionOrdinal(++missedImpressionOrdinal);
-            metadata.commit();
+            mMetadataBatcher.addMissedImpressionOrdinal(activity, ++missedImpressionOrdinal);
+            UnityAdsMetrics.recordMissedShow(delegate.getPlacementId(), missedImpressionOrdinal);
         }
     }
 
     /**
      * The {@link com.google.ads.mediation.unity.UnitySingleton.UnitySingletonListener} is used
-     * to forward events from Unity Ads SDK to {@link UnityAdapter} based on the delegates added
-     * to {@link #mPlacementsInUse} and which adapter is currently showing an ad.
+     * to forward events from Unity Ads SDK to {@link UnityAdapter} based on the delegates queued
+     * in {@link #mPlacementsInUse} and which adapter is currently showing an ad.
      */
     private static final class UnitySingletonListener
             implements IUnityAdsExtendedListener, IUnityBannerListener {
@@ -260,25 +372,23 @@ public final class UnitySingleton {
         @Override
         public void onUnityAdsReady(String placementId) {
             // Unity Ads is ready to show ads for the given placementId. Send ready callback to the
-            // appropriate delegate.
-            if (mPlacementsInUse.containsKey(placementId) &&
-                    mPlacementsInUse.get(placementId).get() != null) {
-                mPlacementsInUse.get(placementId).get().onUnityAdsReady(placementId);
-            }
+            // next delegate waiting for this placement.
+            mPlacementStates.update(placementId, UnityAds.PlacementState.READY);
+            dispatchAdReady(placementId);
 
-            // If 'mBannerDelegate' has a value, then that means a UnityAds banner request is
-            // waiting to be sent by the adapter.
-            if (mBannerDelegate != null &&
-                    mBannerDelegate.get() != null &&
+            // If a banner delegate is registered for this placement, then that means a UnityAds
+            // banner request is waiting to be sent by the adapter.
+            if (getBannerDelegate(placementId) != null &&
                     UnitySingleton.activity != null &&
-                    UnitySingleton.activity.get() != null &&
-                    placementId.equals(mBannerDelegate.get().getPlacementId())) {
-                UnityBanners.loadBanner(UnitySingleton.activity.get(), placementId);
+                    UnitySingleton.activity.get() != null) {
+                loadBanner(UnitySingleton.activity.get(), placementId);
             }
         }
 
         @Override
         public void onUnityAdsStart(String placementId) {
+            UnityAdsMetrics.recordStart(placementId);
+
             // Unity Ads video ad started. Send video started event to currently showing
             // adapter's delegate.
             if (mAdShowingAdapterDelegate != null) {
@@ -306,30 +416,48 @@ public final class UnitySingleton {
                                                     UnityAds.PlacementState oldState,
                                                     UnityAds.PlacementState newState) {
             // The onUnityAdsReady and onUnityAdsError callback methods are used to forward Unity
-            // Ads SDK states to the adapters. No need to forward this callback to the adapters.
+            // Ads SDK states to the adapters. No need to forward this callback to the adapters,
+            // only cache the new state so that later ad requests can be answered right away.
+            mPlacementStates.update(placementId, newState);
+
+            // Fail the waiting ad requests right away if the placement can't fill. An ad that has
+            // already been handed to an adapter is left untouched.
+            if (mPlacementStates.isUnfillable(placementId)) {
+                List<UnityAdapterDelegate> delegates = mPlacementsInUse.removeWaiters(placementId);
+                for (UnityAdapterDelegate delegate : delegates) {
+                    delegate.onUnityAdsError(UnityAds.UnityAdsError.INTERNAL_ERROR, placementId);
+                }
+            }
         }
 
         @Override
         public void onUnityAdsFinish(String placementId, UnityAds.FinishState finishState) {
+            UnityAdsMetrics.recordFinish(placementId);
+
             // An Unity Ads ad has been closed. Forward the finish event to the currently showing
             // adapter's delegate.
             if (mAdShowingAdapterDelegate != null) {
                 UnityAdapterDelegate delegate = mAdShowingAdapterDelegate.get();
                 if (delegate != null) {
                     delegate.onUnityAdsFinish(placementId, finishState);
-                    mPlacementsInUse.remove(placementId);
                 }
             }
+
+            // The shown ad has been consumed. Hand the next ready ad, if any, to the next delegate
+            // waiting for this placement.
+            mPlacementsInUse.release(placementId, null);
+            if (UnityAds.isReady(placementId)) {
+                dispatchAdReady(placementId);
+            }
         }
 
         @Override
         public void onUnityAdsError(UnityAds.UnityAdsError unityAdsError, String placementId) {
-            // An error occurred with Unity Ads. Send error event to the appropriate delegate.
-            if (mPlacementsInUse.containsKey(placementId) &&
-                    mPlacementsInUse.get(placementId).get() != null) {
-                mPlacementsInUse.get(placementId).get()
-                        .onUnityAdsError(unityAdsError, placementId);
-                mPlacementsInUse.remove(placementId);
+            // An error occurred with Unity Ads. Send error event to every delegate holding or
+            // waiting for the placement.
+            List<UnityAdapterDelegate> delegates = mPlacementsInUse.removeAll(placementId);
+            for (UnityAdapterDelegate delegate : delegates) {
+                delegate.onUnityAdsError(unityAdsError, placementId);
             }
         }
 
@@ -338,61 +466,58 @@ public final class UnitySingleton {
          */
         @Override
         public void onUnityBannerLoaded(String placementId, View view) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null && delegate.getPlacementId().equals(placementId)) {
-                    delegate.onUnityBannerLoaded(placementId, view);
-                }
+            if (placementId != null && placementId.equals(mLoadingBannerPlacementId)) {
+                mLoadingBannerPlacementId = null;
+            }
+
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerLoaded(placementId, view);
             }
         }
 
         @Override
         public void onUnityBannerUnloaded(String placementId) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null && delegate.getPlacementId().equals(placementId)) {
-                    delegate.onUnityBannerUnloaded(placementId);
-                }
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerUnloaded(placementId);
             }
         }
 
         @Override
         public void onUnityBannerShow(String placementId) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null && delegate.getPlacementId().equals(placementId)) {
-                    delegate.onUnityBannerShow(placementId);
-                }
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerShow(placementId);
             }
         }
 
         @Override
         public void onUnityBannerClick(String placementId) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null && delegate.getPlacementId().equals(placementId)) {
-                    delegate.onUnityBannerClick(placementId);
-                }
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerClick(placementId);
             }
         }
 
         @Override
         public void onUnityBannerHide(String placementId) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null && delegate.getPlacementId().equals(placementId)) {
-                    delegate.onUnityBannerHide(placementId);
-                }
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerHide(placementId);
             }
         }
 
         @Override
         public void onUnityBannerError(String message) {
-            if (mBannerDelegate != null) {
-                UnityAdapterBannerDelegate delegate = mBannerDelegate.get();
-                if (delegate != null) {
-                    delegate.onUnityBannerError(message);
-                }
+            // Unity Ads banner errors are not tied to a placement. Forward the error to the
+            // banner that is currently loading.
+            String placementId = mLoadingBannerPlacementId;
+            mLoadingBannerPlacementId = null;
+
+            UnityAdapterBannerDelegate delegate = getBannerDelegate(placementId);
+            if (delegate != null) {
+                delegate.onUnityBannerError(message);
             }
         }
     }
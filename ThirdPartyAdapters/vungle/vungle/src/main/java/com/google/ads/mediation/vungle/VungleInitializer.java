@@ -4,6 +4,7 @@ import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 
+import com.vungle.mediation.VungleManager;
 import com.vungle.warren.InitCallback;
 import com.vungle.warren.Vungle;
 import com.vungle.warren.network.VungleApiClient;
@@ -62,6 +63,7 @@ public class VungleInitializer implements InitCallback {
         mHandler.post(new Runnable() {
             @Override
             public void run() {
+                VungleManager.getInstance().updateValidPlacements();
                 for (VungleInitializationListener listener : mInitListeners) {
                     listener.onInitializeSuccess();
                 }
@@ -175,7 +175,7 @@ public class VungleMediationAdapter extends Adapter
                 mMediationRewardedAdCallback =
                         mMediationAdLoadCallback.onSuccess(VungleMediationAdapter.this);
             } else {
-                Vungle.loadAd(mPlacement, VungleMediationAdapter.this);
+                VungleManager.getInstance().loadAd(mPlacement, VungleMediationAdapter.this);
             }
         }
     }
@@ -202,7 +202,7 @@ public class VungleMediationAdapter extends Adapter
                             mMediationAdLoadCallback.onSuccess(VungleMediationAdapter.this);
                 }
             } else {
-                Vungle.loadAd(mPlacement, VungleMediationAdapter.this);
+                VungleManager.getInstance().loadAd(mPlacement, VungleMediationAdapter.this);
             }
         }
     }
@@ -224,7 +224,9 @@ public class VungleMediationAdapter extends Adapter
     @Override
     public void showAd(Context context) {
         if (Vungle.canPlayAd(mPlacement)) {
-            Vungle.playAd(mPlacement, mAdConfig, VungleMediationAdapter.this);
+            // Play through the manager so that the ad waits for any other Vungle ad to end.
+            VungleManager.getInstance().playAd(mPlacement, mAdConfig,
+                    VungleMediationAdapter.this);
         } else {
             if (mMediationRewardedAdCallback != null) {
                 mMediationRewardedAdCallback.onAdFailedToShow("Not ready.");
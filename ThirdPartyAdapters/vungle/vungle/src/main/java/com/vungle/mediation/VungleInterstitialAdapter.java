@@ -128,7 +128,7 @@ public class VungleInterstitialAdapter
                 mMediationInterstitialListener.onAdLoaded(VungleInterstitialAdapter.this);
             }
         } else if (mVungleManager.isValidPlacement(mPlacement)) {
-            mVungleListener.waitForAd(mPlacement);
+            mVungleManager.waitForAd(mAdapterId, mPlacement);
             mVungleManager.loadAd(mPlacement);
         } else { // passed Placement Id is not what Vungle's SDK gets back after init/config
             if (mMediationInterstitialListener != null) {
@@ -8,6 +8,10 @@ abstract class VungleListener {
     private String mWaitingForPlacement;
     private boolean mIsWaitingInit = false;
 
+    /**
+     * Only called by {@link VungleManager}, which indexes the waiting listeners by placement. Use
+     * {@link VungleManager#waitForAd(String, String)} instead.
+     */
     void waitForAd(String placement) {
         this.mWaitingForPlacement = placement;
     }
@@ -12,8 +12,12 @@ import com.vungle.warren.PlayAdCallback;
 import com.vungle.warren.Vungle;
 import com.vungle.warren.network.VungleApiClient;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A helper class to load and show Vungle ads and keep track of multiple
@@ -23,12 +27,116 @@ public class VungleManager {
 
     private static final String TAG = VungleManager.class.getSimpleName();
     private static final String PLAYING_PLACEMENT = "placementID";
+    private static final String PLAY_CALLBACK_ID_PREFIX = "playCallback:";
+
+    /**
+     * Time to wait for Vungle to report the result of a load, in milliseconds.
+     */
+    static final long LOAD_TIMEOUT_MILLIS = 60000;
 
     private static VungleManager sInstance;
-    private String mCurrentPlayId = null;
     private Handler mHandler = new Handler(Looper.getMainLooper());
     private Map<String, VungleListener> mListeners;
 
+    /**
+     * The placements that were valid when the Vungle SDK was last initialized. Replaced as a
+     * whole on every initialization.
+     */
+    private volatile VunglePlacementSnapshot mPlacementSnapshot;
+
+    /**
+     * IDs of the listeners waiting for an ad, keyed by the placement they are waiting for. Kept
+     * in sync with {@link VungleListener#getWaitingForPlacement()} so that load results can be
+     * dispatched without scanning every listener.
+     */
+    private final VungleWaitingListeners mWaitingListeners = new VungleWaitingListeners();
+
+    /**
+     * Callbacks waiting for the load in flight for each placement.
+     */
+    private final Map<String, List<LoadAdCallback>> mInFlightLoads = new HashMap<>();
+
+    /**
+     * Runnables failing the load in flight for each placement if Vungle does not report its
+     * result in time, so that a lost callback does not block the placement for good.
+     */
+    private final Map<String, Runnable> mLoadTimeouts = new HashMap<>();
+
+    /**
+     * Callbacks of the plays scheduled with {@link #playAd(String, AdConfig, PlayAdCallback)},
+     * keyed by the ID they were scheduled with, until their play ends or fails.
+     */
+    private final Map<String, PlayAdCallback> mPlayCallbacks = new HashMap<>();
+
+    /**
+     * Notifies the interstitial listeners waiting for a placement once its load ends.
+     */
+    private final LoadAdCallback mInterstitialLoadCallback = new LoadAdCallback() {
+        @Override
+        public void onAdLoad(String id) {
+            notifyAdIsReady(id, true);
+        }
+
+        @Override
+        public void onError(String id, Throwable cause) {
+            notifyAdIsReady(id, false);
+        }
+    };
+
+    /**
+     * Plays the Vungle ads one at a time and forwards their events to the listener that requested
+     * each play.
+     */
+    private final VunglePlayScheduler mPlayScheduler = new VunglePlayScheduler(mHandler,
+            new VunglePlayScheduler.Listener() {
+                @Override
+                public void onPlayStart(String id, String placement) {
+                    PlayAdCallback callback = mPlayCallbacks.get(id);
+                    VungleListener listener = mListeners.get(id);
+                    try {
+                        if (callback != null) {
+                            callback.onAdStart(placement);
+                        } else if (listener != null) {
+                            listener.onAdStart(placement);
+                        }
+                    } catch (Exception exception) {
+                        Log.w(TAG, exception);
+                    }
+                }
+
+                @Override
+                public void onPlayEnd(String id, String placement, boolean completed,
+                                      boolean isCTAClicked) {
+                    PlayAdCallback callback = mPlayCallbacks.remove(id);
+                    VungleListener listener = mListeners.get(id);
+                    try {
+                        if (callback != null) {
+                            callback.onAdEnd(placement, completed, isCTAClicked);
+                        } else if (listener != null) {
+                            listener.onAdEnd(placement, completed, isCTAClicked);
+                        }
+                    } catch (Exception exception) {
+                        Log.w(TAG, exception);
+                    }
+                }
+
+                @Override
+                public void onPlayFailed(String id, String placement) {
+                    PlayAdCallback callback = mPlayCallbacks.remove(id);
+                    VungleListener listener = mListeners.get(id);
+                    try {
+                        if (callback != null) {
+                            callback.onError(placement,
+                                    new IllegalStateException("Vungle ad failed to play."));
+                        } else if (listener != null) {
+                            listener.onAdFail(placement);
+                        }
+                    } catch (Exception exception) {
+                        Log.w(TAG, exception);
+                    }
+                }
+            });
+
     public static VungleManager getInstance() {
         if (sInstance == null) {
             sInstance = new VungleManager();
@@ -61,77 +169,91 @@ public class VungleManager {
     }
 
     void removeListener(String id) {
-        mListeners.remove(id);
+        mPlayScheduler.cancel(id);
+        VungleListener listener = mListeners.remove(id);
+        if (listener != null) {
+            mWaitingListeners.remove(listener.getWaitingForPlacement(), id);
+        }
     }
 
     void addListener(String id, VungleListener listener) {
         removeListener(id);
         mListeners.put(id, listener);
+        mWaitingListeners.add(listener.getWaitingForPlacement(), id);
+    }
+
+    /**
+     * Sets the placement the listener with the given ID is waiting for.
+     *
+     * @param id        the ID the listener was added with.
+     * @param placement the placement to wait for, or {@code null} to stop waiting.
+     */
+    void waitForAd(String id, @Nullable String placement) {
+        VungleListener listener = mListeners.get(id);
+        if (listener == null) {
+            return;
+        }
+        mWaitingListeners.remove(listener.getWaitingForPlacement(), id);
+        listener.waitForAd(placement);
+        mWaitingListeners.add(placement, id);
     }
 
     void playAd(String placement, AdConfig cfg, String id) {
-        if (mCurrentPlayId != null) {
+        mPlayScheduler.schedule(placement, cfg, id);
+    }
+
+    /**
+     * Plays an ad once the Vungle ads requested before it have ended, so that only one Vungle ad
+     * is shown at a time across ad formats. Must be called on the main thread.
+     *
+     * @param placement the Vungle placement to play.
+     * @param cfg       the ad configuration.
+     * @param callback  the callback notified of the play events on the main thread.
+     */
+    public void playAd(String placement, AdConfig cfg, PlayAdCallback callback) {
+        String id = PLAY_CALLBACK_ID_PREFIX + System.identityHashCode(callback);
+        if (mPlayCallbacks.containsKey(id)) {
+            Log.w(TAG, "A play is already scheduled for " + id);
             return;
         }
-        mCurrentPlayId = id;
-        Vungle.playAd(placement, cfg, new PlayAdCallback() {
-            @Override
-            public void onAdStart(final String id) {
-                mHandler.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        for (Map.Entry<String, VungleListener> entry : mListeners.entrySet()) {
-                            try {
-                                if (mCurrentPlayId == null || mCurrentPlayId.equals(entry.getKey())) {
-                                    entry.getValue().onAdStart(id);
-                                }
-                            } catch (Exception exception) {
-                                Log.w(TAG, exception);
-                            }
-                        }
-                    }
-                });
-            }
+        mPlayCallbacks.put(id, callback);
+        mPlayScheduler.schedule(placement, cfg, id);
+    }
 
-            @Override
-            public void onAdEnd(final String id, final boolean completed, final boolean isCTAClicked) {
-                mHandler.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        for (Map.Entry<String, VungleListener> entry : mListeners.entrySet()) {
-                            try {
-                                if (mCurrentPlayId == null || mCurrentPlayId.equals(entry.getKey())) {
-                                    entry.getValue()
-                                            .onAdEnd(id, completed, isCTAClicked);
-                                }
-                            } catch (Exception exception) {
-                                Log.w(TAG, exception);
-                            }
-                        }
-                        mCurrentPlayId = null;
-                    }
-                });
-            }
+    /**
+     * @return the number of Vungle ads waiting for the current ad to finish playing.
+     */
+    public int getPlayQueueDepth() {
+        return mPlayScheduler.getQueueDepth();
+    }
 
-            @Override
-            public void onError(final String id, Throwable error) {
-                mHandler.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        for (Map.Entry<String, VungleListener> entry : mListeners.entrySet()) {
-                            try {
-                                if (mCurrentPlayId == null || mCurrentPlayId.equals(entry.getKey())) {
-                                    entry.getValue().onAdFail(id);
-                                }
-                            } catch (Exception exception) {
-                                Log.w(TAG, exception);
-                            }
-                        }
-                        mCurrentPlayId = null;
-                    }
-                });
-            }
-        });
+    /**
+     * @return the time between the last show request and the start of its ad, in milliseconds.
+     */
+    public long getLastPlayLatencyMillis() {
+        return mPlayScheduler.getLastLatencyMillis();
+    }
+
+    /**
+     * @return the average time between a show request and the start of its ad, in milliseconds.
+     */
+    public long getAveragePlayLatencyMillis() {
+        return mPlayScheduler.getAverageLatencyMillis();
+    }
+
+    /**
+     * @return the number of plays expired because Vungle did not start or end them in time.
+     */
+    public int getExpiredPlayCount() {
+        return mPlayScheduler.getExpiredPlays();
+    }
+
+    /**
+     * @return the number of show requests dropped because the play queue was full, or because
+     * they waited in it for too long.
+     */
+    public int getDroppedPlayCount() {
+        return mPlayScheduler.getDroppedPlays();
     }
 
     boolean isAdPlayable(String placement) {
@@ -144,39 +266,84 @@ public class VungleManager {
             notifyAdIsReady(placement, true);
             return;
         }
+        loadAd(placement, mInterstitialLoadCallback);
+    }
+
+    /**
+     * Loads an ad for the given placement. If a load for the placement is already in flight, the
+     * callback is attached to it instead of starting another one, and every attached callback is
+     * notified once the load ends. The load is failed if it does not end within
+     * {@link #LOAD_TIMEOUT_MILLIS}. Must be called on the main thread.
+     *
+     * @param placement the Vungle placement to load.
+     * @param callback  the callback notified on the main thread once the load ends.
+     */
+    public void loadAd(final String placement, LoadAdCallback callback) {
+        List<LoadAdCallback> callbacks = mInFlightLoads.get(placement);
+        if (callbacks != null) {
+            if (!callbacks.contains(callback)) {
+                callbacks.add(callback);
+            }
+            return;
+        }
+
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        mInFlightLoads.put(placement, callbacks);
+
+        Runnable timeoutRunnable = new Runnable() {
+            @Override
+            public void run() {
+                Log.w(TAG, "Vungle did not report the load result for placement " + placement
+                        + " in time, failing it.");
+                onLoadFinished(placement, placement,
+                        new TimeoutException("Vungle load timed out"));
+            }
+        };
+        mLoadTimeouts.put(placement, timeoutRunnable);
+        mHandler.postDelayed(timeoutRunnable, LOAD_TIMEOUT_MILLIS);
+
         Vungle.loadAd(placement, new LoadAdCallback() {
             @Override
             public void onAdLoad(final String id) {
                 mHandler.post(new Runnable() {
                     @Override
                     public void run() {
-                        notifyAdIsReady(id, true);
+                        onLoadFinished(placement, id, null);
                     }
                 });
             }
 
             @Override
-            public void onError(final String id, Throwable cause) {
+            public void onError(final String id, final Throwable cause) {
                 mHandler.post(new Runnable() {
                     @Override
                     public void run() {
-                        notifyAdIsReady(id, false);
+                        onLoadFinished(placement, id, cause);
                     }
                 });
             }
         });
     }
 
-    private void notifyAdIsReady(String placement, boolean success) {
-        for (VungleListener cb : mListeners.values()) {
+    /**
+     * Delivers the result of a load to every callback attached to it.
+     */
+    private void onLoadFinished(String placement, String id, @Nullable Throwable cause) {
+        Runnable timeoutRunnable = mLoadTimeouts.remove(placement);
+        if (timeoutRunnable != null) {
+            mHandler.removeCallbacks(timeoutRunnable);
+        }
+        List<LoadAdCallback> callbacks = mInFlightLoads.remove(placement);
+        if (callbacks == null) {
+            return;
+        }
+        for (LoadAdCallback callback : callbacks) {
             try {
-                if (cb.getWaitingForPlacement() != null
-                        && cb.getWaitingForPlacement().equals(placement)) {
-                    if (success)
-                        cb.onAdAvailable();
-                    else
-                        cb.onAdFailedToLoad();
-                    cb.waitForAd(null);
+                if (cause == null) {
+                    callback.onAdLoad(id);
+                } else {
+                    callback.onError(id, cause);
                 }
             } catch (Exception exception) {
                 Log.w(TAG, exception);
@@ -184,9 +351,73 @@ public class VungleManager {
         }
     }
 
+    private void notifyAdIsReady(String placement, boolean success) {
+        Set<String> ids = mWaitingListeners.removeAll(placement);
+        if (ids == null) {
+            return;
+        }
+
+        List<VungleListener> listeners = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            VungleListener listener = mListeners.get(id);
+            if (listener != null) {
+                listener.waitForAd(null);
+                listeners.add(listener);
+            }
+        }
+        for (VungleListener cb : listeners) {
+            try {
+                if (success)
+                    cb.onAdAvailable();
+                else
+                    cb.onAdFailedToLoad();
+            } catch (Exception exception) {
+                Log.w(TAG, exception);
+            }
+        }
+    }
+
     boolean isValidPlacement(String placementId) {
-        return Vungle.isInitialized() &&
-                Vungle.getValidPlacements().contains(placementId);
+        if (!Vungle.isInitialized()) {
+            return false;
+        }
+        VunglePlacementSnapshot snapshot = mPlacementSnapshot;
+        if (snapshot == null) {
+            // The SDK was initialized without going through VungleInitializer, or had not
+            // reported its placements yet when it was. Query the SDK again, a snapshot is only
+            // kept once it reports placements.
+            snapshot = takePlacementSnapshot();
+        }
+        return snapshot != null && snapshot.contains(placementId);
+    }
+
+    /**
+     * Takes a new snapshot of the placements the Vungle SDK reports as valid and replaces the
+     * previous one. Called every time the Vungle SDK is initialized.
+     */
+    public void updateValidPlacements() {
+        takePlacementSnapshot();
+    }
+
+    /**
+     * Replaces the placement snapshot with the placements the Vungle SDK currently reports as
+     * valid. Nothing is cached while the SDK reports no placement, so that placements reported
+     * later are not rejected.
+     *
+     * @return the new snapshot, or {@code null} if the SDK reports no placement.
+     */
+    @Nullable
+    private VunglePlacementSnapshot takePlacementSnapshot() {
+        VunglePlacementSnapshot snapshot =
+                VunglePlacementSnapshot.create(Vungle.getValidPlacements());
+        if (snapshot.size() == 0) {
+            mPlacementSnapshot = null;
+            Log.d(TAG, "Vungle has no valid placement yet.");
+            return null;
+        }
+        mPlacementSnapshot = snapshot;
+        Log.d(TAG, "Vungle has " + snapshot.size() + " valid placement(s).");
+        return snapshot;
     }
 
 }
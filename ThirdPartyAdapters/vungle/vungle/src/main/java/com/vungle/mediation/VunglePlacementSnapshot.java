@@ -0,0 +1,40 @@
+package com.vungle.mediation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The {@link VunglePlacementSnapshot} class is an immutable copy of the placements that the
+ * Vungle SDK reported as valid when it was initialized, so that ad requests can be validated
+ * without querying the SDK.
+ */
+final class VunglePlacementSnapshot {
+
+    private final Set<String> mValidPlacements;
+
+    private VunglePlacementSnapshot(Set<String> validPlacements) {
+        mValidPlacements = Collections.unmodifiableSet(validPlacements);
+    }
+
+    /**
+     * @param validPlacements the placements reported by the Vungle SDK, may be {@code null}.
+     * @return a snapshot of the given placements.
+     */
+    static VunglePlacementSnapshot create(Collection<String> validPlacements) {
+        Set<String> placements = new HashSet<>();
+        if (validPlacements != null) {
+            placements.addAll(validPlacements);
+        }
+        return new VunglePlacementSnapshot(placements);
+    }
+
+    boolean contains(String placement) {
+        return placement != null && mValidPlacements.contains(placement);
+    }
+
+    int size() {
+        return mValidPlacements.size();
+    }
+}
@@ -0,0 +1,287 @@
+package com.vungle.mediation;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.vungle.warren.AdConfig;
+import com.vungle.warren.PlayAdCallback;
+import com.vungle.warren.Vungle;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * The {@link VunglePlayScheduler} plays Vungle ads one at a time, in the order they were
+ * requested. Every play is guarded by a watchdog: if Vungle does not start the ad within
+ * {@link #START_TIMEOUT_MILLIS}, or does not end it within {@link #PLAYBACK_TIMEOUT_MILLIS}, the
+ * play is expired and the next one starts, so that a lost callback can not block later plays.
+ * A request that waits in the queue for longer than {@link #QUEUE_TIMEOUT_MILLIS} is dropped so
+ * that an ad never shows long after it was asked for, as are requests that do not fit in the
+ * queue. Expired and dropped requests are reported as failed plays, and the late events of an
+ * expired play are not forwarded.
+ *
+ * <p>All methods must be called on the thread of the handler given to the constructor.
+ */
+final class VunglePlayScheduler {
+
+    private static final String TAG = VunglePlayScheduler.class.getSimpleName();
+
+    /**
+     * Maximum number of plays waiting for the current play to end.
+     */
+    static final int MAX_QUEUED_PLAYS = 4;
+
+    /**
+     * Time Vungle has to start playing an ad, in milliseconds.
+     */
+    static final long START_TIMEOUT_MILLIS = 15000;
+
+    /**
+     * Time Vungle has to end an ad once it has started, in milliseconds.
+     */
+    static final long PLAYBACK_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * Time a play may wait in the queue for the plays requested before it, in milliseconds.
+     */
+    static final long QUEUE_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * Receives the events of the scheduled plays, on the handler thread.
+     */
+    interface Listener {
+
+        void onPlayStart(String id, String placement);
+
+        void onPlayEnd(String id, String placement, boolean completed, boolean isCTAClicked);
+
+        void onPlayFailed(String id, String placement);
+    }
+
+    private final Handler mHandler;
+    private final Listener mListener;
+
+    private final LinkedList<PlayRequest> mQueue = new LinkedList<>();
+    private PlayRequest mCurrentPlay;
+
+    private int mStartedPlays;
+    private long mTotalLatencyMillis;
+    private long mLastLatencyMillis;
+    private int mExpiredPlays;
+    private int mDroppedPlays;
+
+    VunglePlayScheduler(Handler handler, Listener listener) {
+        mHandler = handler;
+        mListener = listener;
+    }
+
+    /**
+     * Plays an ad once the plays requested before it have ended.
+     *
+     * @param placement the Vungle placement to play.
+     * @param config    the ad configuration.
+     * @param id        the ID of the listener requesting the play.
+     */
+    void schedule(String placement, AdConfig config, String id) {
+        if (isScheduled(id)) {
+            Log.w(TAG, "A play is already scheduled for " + id);
+            return;
+        }
+        if (mQueue.size() >= MAX_QUEUED_PLAYS) {
+            Log.w(TAG, "Play queue is full, dropping play for placement " + placement);
+            mDroppedPlays++;
+            mListener.onPlayFailed(id, placement);
+            return;
+        }
+        final PlayRequest request = new PlayRequest(placement, config, id);
+        request.mWatchdog = new Runnable() {
+            @Override
+            public void run() {
+                onQueueTimeout(request);
+            }
+        };
+        mQueue.add(request);
+        mHandler.postDelayed(request.mWatchdog, QUEUE_TIMEOUT_MILLIS);
+        playNext();
+    }
+
+    /**
+     * Removes the queued plays of the given listener. The current play, if any, is not affected.
+     *
+     * @param id the ID of the listener.
+     */
+    void cancel(String id) {
+        Iterator<PlayRequest> iterator = mQueue.iterator();
+        while (iterator.hasNext()) {
+            PlayRequest request = iterator.next();
+            if (request.mId.equals(id)) {
+                mHandler.removeCallbacks(request.mWatchdog);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of plays waiting for the current play to end.
+     */
+    int getQueueDepth() {
+        return mQueue.size();
+    }
+
+    /**
+     * @return the time between the last play request and the start of its ad, in milliseconds.
+     */
+    long getLastLatencyMillis() {
+        return mLastLatencyMillis;
+    }
+
+    /**
+     * @return the average time between a play request and the start of its ad, in milliseconds.
+     */
+    long getAverageLatencyMillis() {
+        return mStartedPlays > 0 ? mTotalLatencyMillis / mStartedPlays : 0;
+    }
+
+    int getExpiredPlays() {
+        return mExpiredPlays;
+    }
+
+    int getDroppedPlays() {
+        return mDroppedPlays;
+    }
+
+    private boolean isScheduled(String id) {
+        if (mCurrentPlay != null && mCurrentPlay.mId.equals(id)) {
+            return true;
+        }
+        for (PlayRequest request : mQueue) {
+            if (request.mId.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void playNext() {
+        if (mCurrentPlay != null || mQueue.isEmpty()) {
+            return;
+        }
+
+        final PlayRequest request = mQueue.poll();
+        mHandler.removeCallbacks(request.mWatchdog);
+        mCurrentPlay = request;
+        request.mWatchdog = new Runnable() {
+            @Override
+            public void run() {
+                onPlayExpired(request);
+            }
+        };
+        mHandler.postDelayed(request.mWatchdog, START_TIMEOUT_MILLIS);
+
+        Vungle.playAd(request.mPlacement, request.mConfig, new PlayAdCallback() {
+            @Override
+            public void onAdStart(final String placement) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onPlayStarted(request, placement);
+                    }
+                });
+            }
+
+            @Override
+            public void onAdEnd(final String placement, final boolean completed,
+                                final boolean isCTAClicked) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (finish(request)) {
+                            mListener.onPlayEnd(request.mId, placement, completed, isCTAClicked);
+                            playNext();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onError(final String placement, Throwable error) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (finish(request)) {
+                            mListener.onPlayFailed(request.mId, placement);
+                            playNext();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPlayStarted(PlayRequest request, String placement) {
+        if (mCurrentPlay != request) {
+            return;
+        }
+        request.mIsStarted = true;
+        mLastLatencyMillis = SystemClock.elapsedRealtime() - request.mRequestTimeMillis;
+        mTotalLatencyMillis += mLastLatencyMillis;
+        mStartedPlays++;
+
+        mHandler.removeCallbacks(request.mWatchdog);
+        mHandler.postDelayed(request.mWatchdog, PLAYBACK_TIMEOUT_MILLIS);
+        mListener.onPlayStart(request.mId, placement);
+    }
+
+    private void onPlayExpired(PlayRequest request) {
+        if (!finish(request)) {
+            return;
+        }
+        Log.w(TAG, "Vungle did not report the " + (request.mIsStarted ? "end" : "start")
+                + " of the play for placement " + request.mPlacement + " in time, expiring it.");
+        mExpiredPlays++;
+        mListener.onPlayFailed(request.mId, request.mPlacement);
+        playNext();
+    }
+
+    private void onQueueTimeout(PlayRequest request) {
+        if (!mQueue.remove(request)) {
+            return;
+        }
+        Log.w(TAG, "Play for placement " + request.mPlacement
+                + " waited too long in the queue, dropping it.");
+        mDroppedPlays++;
+        mListener.onPlayFailed(request.mId, request.mPlacement);
+    }
+
+    /**
+     * Ends the given play if it is the current one. Callbacks of expired plays are ignored.
+     *
+     * @return {@code true} if the play was the current one.
+     */
+    private boolean finish(PlayRequest request) {
+        if (mCurrentPlay != request) {
+            return false;
+        }
+        mHandler.removeCallbacks(request.mWatchdog);
+        mCurrentPlay = null;
+        return true;
+    }
+
+    private static final class PlayRequest {
+
+        private final String mPlacement;
+        private final AdConfig mConfig;
+        private final String mId;
+        private final long mRequestTimeMillis;
+        private Runnable mWatchdog;
+        private boolean mIsStarted;
+
+        PlayRequest(String placement, AdConfig config, String id) {
+            mPlacement = placement;
+            mConfig = config;
+            mId = id;
+            mRequestTimeMillis = SystemClock.elapsedRealtime();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.vungle.mediation;
+
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link VungleWaitingListeners} class indexes the IDs of the listeners waiting for an ad by
+ * the placement they are waiting for, so that a load result is dispatched with a single lookup
+ * instead of a scan of every listener.
+ *
+ * <p>Not thread safe, {@link VungleManager} only uses it on the main thread.
+ */
+final class VungleWaitingListeners {
+
+    private final Map<String, Set<String>> mIdsByPlacement = new HashMap<>();
+
+    /**
+     * Adds the listener with the given ID to the listeners waiting for the placement.
+     *
+     * @param placement the placement, ignored if {@code null}.
+     * @param id        the ID of the listener.
+     */
+    void add(@Nullable String placement, String id) {
+        if (placement == null) {
+            return;
+        }
+        Set<String> ids = mIdsByPlacement.get(placement);
+        if (ids == null) {
+            ids = new LinkedHashSet<>();
+            mIdsByPlacement.put(placement, ids);
+        }
+        ids.add(id);
+    }
+
+    /**
+     * Removes the listener with the given ID from the listeners waiting for the placement.
+     *
+     * @param placement the placement, ignored if {@code null}.
+     * @param id        the ID of the listener.
+     */
+    void remove(@Nullable String placement, String id) {
+        if (placement == null) {
+            return;
+        }
+        Set<String> ids = mIdsByPlacement.get(placement);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                mIdsByPlacement.remove(placement);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the IDs of the listeners waiting for the placement, in the order they
+     * started waiting.
+     *
+     * @return the IDs, or {@code null} if no listener is waiting for the placement.
+     */
+    @Nullable
+    Set<String> removeAll(String placement) {
+        return mIdsByPlacement.remove(placement);
+    }
+}
@@ -0,0 +1,114 @@
+package com.vungle.mediation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares dispatching a load result through {@link VungleWaitingListeners} with the scan of
+ * every listener that {@link VungleManager} used before, and checks that both find the same
+ * listeners. The benchmark is ignored by default so that it does not slow down the unit tests,
+ * run it explicitly to compare the two.
+ */
+public class VungleWaitingListenersBenchmarkTest {
+
+    private static final int LISTENER_COUNT = 2000;
+    private static final int PLACEMENT_COUNT = 20;
+    private static final int WARM_UP_DISPATCHES = 2000;
+    private static final int MEASURED_DISPATCHES = 20000;
+
+    private final Map<String, VungleListener> mListeners = new HashMap<>();
+    private final VungleWaitingListeners mWaitingListeners = new VungleWaitingListeners();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < LISTENER_COUNT; i++) {
+            String id = "listener" + i;
+            String placement = placement(i);
+            VungleListener listener = new VungleListener() {};
+            listener.waitForAd(placement);
+            mListeners.put(id, listener);
+            mWaitingListeners.add(placement, id);
+        }
+    }
+
+    @Test
+    public void dispatch_indexFindsSameListenersAsScan() {
+        for (int i = 0; i < PLACEMENT_COUNT; i++) {
+            String placement = placement(i);
+            Set<String> scanned = scan(placement);
+            Set<String> indexed = mWaitingListeners.removeAll(placement);
+
+            assertEquals(LISTENER_COUNT / PLACEMENT_COUNT, scanned.size());
+            assertEquals(scanned, indexed);
+            assertNull(mWaitingListeners.removeAll(placement));
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark, run explicitly.")
+    public void dispatch_benchmark() {
+        int found = 0;
+        for (int i = 0; i < WARM_UP_DISPATCHES; i++) {
+            found += scan(placement(i)).size();
+            found += lookUp(placement(i)).size();
+        }
+
+        long scanStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_DISPATCHES; i++) {
+            found += scan(placement(i)).size();
+        }
+        long scanNanos = System.nanoTime() - scanStart;
+
+        long indexStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_DISPATCHES; i++) {
+            found += lookUp(placement(i)).size();
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        assertEquals((WARM_UP_DISPATCHES + MEASURED_DISPATCHES) * 2
+                * (LISTENER_COUNT / PLACEMENT_COUNT), found);
+        assertTrue(String.format("Index (%d ns/op) is not faster than scan (%d ns/op)",
+                indexNanos / MEASURED_DISPATCHES, scanNanos / MEASURED_DISPATCHES),
+                indexNanos < scanNanos);
+    }
+
+    /**
+     * Finds the listeners waiting for the placement the way {@link VungleManager} did before it
+     * indexed them.
+     */
+    private Set<String> scan(String placement) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Map.Entry<String, VungleListener> entry : mListeners.entrySet()) {
+            if (placement.equals(entry.getValue().getWaitingForPlacement())) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the listeners waiting for the placement through the index, then puts them back so
+     * that every dispatch sees the same listeners.
+     */
+    private Set<String> lookUp(String placement) {
+        Set<String> ids = mWaitingListeners.removeAll(placement);
+        for (String id : ids) {
+            mWaitingListeners.add(placement, id);
+        }
+        return ids;
+    }
+
+    private static String placement(int index) {
+        return "placement" + (index % PLACEMENT_COUNT);
+    }
+}